@@ -0,0 +1,142 @@
+/*
+ * FireTVDeviceCache
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.discovery.provider;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * On-disk cache of last seen FireTV devices. Entries are stored in a compact binary format: a
+ * header with magic number and version followed by UID, friendly name and last seen time of each
+ * device. A missing, corrupted or outdated file is treated as an empty cache.
+ */
+class FireTVDeviceCache {
+
+    static final int MAGIC = 0x46545643;
+
+    static final int VERSION = 1;
+
+    static final class Entry {
+
+        final String uid;
+
+        final String friendlyName;
+
+        final long lastSeen;
+
+        Entry(String uid, String friendlyName, long lastSeen) {
+            this.uid = uid;
+            this.friendlyName = friendlyName;
+            this.lastSeen = lastSeen;
+        }
+    }
+
+    private final File file;
+
+    FireTVDeviceCache(File file) {
+        this.file = file;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * Read entries which were seen not earlier than maxAge milliseconds before now
+     */
+    List<Entry> load(long now, long maxAge) {
+        if (!file.exists()) {
+            return Collections.emptyList();
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+                return Collections.emptyList();
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                return Collections.emptyList();
+            }
+            List<Entry> entries = new ArrayList<>(Math.min(count, 64));
+            for (int i = 0; i < count; i++) {
+                String uid = in.readUTF();
+                String friendlyName = in.readUTF();
+                long lastSeen = in.readLong();
+                if (now - lastSeen <= maxAge) {
+                    entries.add(new Entry(uid, friendlyName, lastSeen));
+                }
+            }
+            return entries;
+        } catch (IOException e) {
+            return Collections.emptyList();
+        } finally {
+            close(in);
+        }
+    }
+
+    /**
+     * Replace cache content with given entries. Data is written to a temporary file first, so a
+     * failed write doesn't destroy the previous content.
+     */
+    boolean save(Collection<Entry> entries) {
+        File tempFile = new File(file.getPath() + ".tmp");
+        DataOutputStream out = null;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeUTF(entry.uid);
+                out.writeUTF(entry.friendlyName != null ? entry.friendlyName : "");
+                out.writeLong(entry.lastSeen);
+            }
+            out.close();
+            out = null;
+            return tempFile.renameTo(file);
+        } catch (IOException e) {
+            close(out);
+            tempFile.delete();
+            return false;
+        }
+    }
+
+    private static void close(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+}
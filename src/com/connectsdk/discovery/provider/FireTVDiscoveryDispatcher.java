@@ -0,0 +1,229 @@
+/*
+ * FireTVDiscoveryDispatcher
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.discovery.provider;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.connectsdk.discovery.DiscoveryProvider;
+import com.connectsdk.discovery.DiscoveryProviderListener;
+import com.connectsdk.service.FireTVCallbackExecutors;
+import com.connectsdk.service.command.ServiceCommandError;
+import com.connectsdk.service.config.ServiceDescription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Collects discovery events over a short window and delivers them to provider listeners as one
+ * batch with the callback executor, which is the main thread by default. An addition followed by
+ * a removal of the same service within one window cancels out, so listeners don't see devices
+ * which have disappeared before they were reported. With a zero window each event is delivered
+ * right away.
+ */
+class FireTVDiscoveryDispatcher {
+
+    enum EventType {
+        ADDED,
+        REMOVED,
+        FAILED
+    }
+
+    static final class Event {
+
+        final EventType type;
+
+        final String uid;
+
+        final ServiceDescription serviceDescription;
+
+        final ServiceCommandError error;
+
+        Event(EventType type, String uid, ServiceDescription serviceDescription,
+              ServiceCommandError error) {
+            this.type = type;
+            this.uid = uid;
+            this.serviceDescription = serviceDescription;
+            this.error = error;
+        }
+    }
+
+    private final DiscoveryProvider provider;
+
+    private final List<DiscoveryProviderListener> listeners;
+
+    private final Object lock = new Object();
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    private List<Event> pendingEvents = new ArrayList<>();
+
+    private boolean flushScheduled;
+
+    private long window;
+
+    private Handler handler;
+
+    private volatile Executor executor = FireTVCallbackExecutors.mainThread();
+
+    FireTVDiscoveryDispatcher(DiscoveryProvider provider,
+                              List<DiscoveryProviderListener> listeners) {
+        this.provider = provider;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Set time in milliseconds during which events are collected before delivery. Zero disables
+     * batching.
+     */
+    void setWindow(long window) {
+        synchronized (lock) {
+            this.window = window < 0 ? 0 : window;
+        }
+        if (window <= 0) {
+            flush();
+        }
+    }
+
+    long getWindow() {
+        synchronized (lock) {
+            return window;
+        }
+    }
+
+    void setExecutor(Executor executor) {
+        this.executor = executor != null ? executor : FireTVCallbackExecutors.mainThread();
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    void serviceAdded(String uid, ServiceDescription serviceDescription) {
+        enqueue(new Event(EventType.ADDED, uid, serviceDescription, null));
+    }
+
+    void serviceRemoved(String uid, ServiceDescription serviceDescription) {
+        enqueue(new Event(EventType.REMOVED, uid, serviceDescription, null));
+    }
+
+    void discoveryFailed(ServiceCommandError error) {
+        enqueue(new Event(EventType.FAILED, null, null, error));
+    }
+
+    /**
+     * Deliver all pending events now
+     */
+    void flush() {
+        final List<Event> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            batch = pendingEvents;
+            pendingEvents = new ArrayList<>();
+        }
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                deliver(batch);
+            }
+        });
+    }
+
+    int getPendingCount() {
+        synchronized (lock) {
+            return pendingEvents.size();
+        }
+    }
+
+    private void enqueue(Event event) {
+        synchronized (lock) {
+            if (!cancelPendingPair(event)) {
+                pendingEvents.add(event);
+            }
+            if (window > 0) {
+                if (!flushScheduled) {
+                    flushScheduled = true;
+                    getHandler().postDelayed(flushRunnable, window);
+                }
+                return;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Drop the event together with the latest pending event for the same service if they
+     * cancel each other out. A removal followed by an addition is dropped only if it's the same
+     * service description, otherwise listeners must learn about the new instance.
+     */
+    private boolean cancelPendingPair(Event event) {
+        if (event.type == EventType.FAILED || event.uid == null) {
+            return false;
+        }
+        for (int i = pendingEvents.size() - 1; i >= 0; i--) {
+            Event pending = pendingEvents.get(i);
+            if (!event.uid.equals(pending.uid)) {
+                continue;
+            }
+            boolean cancels = pending.type == EventType.ADDED && event.type == EventType.REMOVED
+                    || pending.type == EventType.REMOVED && event.type == EventType.ADDED
+                    && pending.serviceDescription == event.serviceDescription;
+            if (cancels) {
+                pendingEvents.remove(i);
+            }
+            return cancels;
+        }
+        return false;
+    }
+
+    private void deliver(List<Event> batch) {
+        for (Event event : batch) {
+            for (DiscoveryProviderListener listener : listeners) {
+                switch (event.type) {
+                    case ADDED:
+                        listener.onServiceAdded(provider, event.serviceDescription);
+                        break;
+                    case REMOVED:
+                        listener.onServiceRemoved(provider, event.serviceDescription);
+                        break;
+                    case FAILED:
+                        listener.onServiceDiscoveryFailed(provider, event.error);
+                        break;
+                }
+            }
+        }
+    }
+
+    private Handler getHandler() {
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+        }
+        return handler;
+    }
+}
@@ -21,6 +21,9 @@
 package com.connectsdk.discovery.provider;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 
 import com.amazon.whisperplay.fling.media.controller.DiscoveryController;
 import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
@@ -28,13 +31,21 @@ import com.connectsdk.core.Util;
 import com.connectsdk.discovery.DiscoveryFilter;
 import com.connectsdk.discovery.DiscoveryProvider;
 import com.connectsdk.discovery.DiscoveryProviderListener;
+import com.connectsdk.service.FireTVCallbackExecutors;
 import com.connectsdk.service.FireTVService;
 import com.connectsdk.service.command.ServiceCommandError;
 import com.connectsdk.service.config.ServiceDescription;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * FireTVDiscoveryProvider provides discovery implementation for FireTV devices.
@@ -48,10 +59,111 @@ import java.util.concurrent.CopyOnWriteArrayList;
  */
 public class FireTVDiscoveryProvider implements DiscoveryProvider {
 
+    /**
+     * Cached devices which were seen earlier than this are not loaded
+     */
+    public static final long DEFAULT_CACHE_MAX_AGE = 7 * 24 * 60 * 60 * 1000L;
+
+    /**
+     * Time for discovery to confirm cached devices before they are removed
+     */
+    public static final long DEFAULT_VERIFY_TIMEOUT = 30000;
+
+    /**
+     * Duty cycled discovery scans continuously until no devices are found or lost for this time
+     */
+    public static final long DEFAULT_STABLE_PERIOD = 15000;
+
+    /**
+     * Duration of a periodic scan when duty cycled discovery has backed off
+     */
+    public static final long DEFAULT_SCAN_WINDOW = 5000;
+
+    /**
+     * Pause between periodic scans when duty cycled discovery has backed off
+     */
+    public static final long DEFAULT_IDLE_INTERVAL = 60000;
+
+    /**
+     * Time for a rescan to confirm cached devices before they are removed
+     */
+    public static final long DEFAULT_RESCAN_WINDOW = 10000;
+
+    /**
+     * Grace period of a lost device is multiplied by number of its recent flaps up to this value
+     */
+    static final int MAX_FLAP_COUNT = 4;
+
+    /**
+     * A device which stays found longer than this number of grace periods is considered stable
+     * and its flap counter is reset
+     */
+    static final int STABLE_PERIOD_FACTOR = 10;
+
     private DiscoveryController discoveryController;
 
+    private final FireTVDeviceCache deviceCache;
+
+    /**
+     * Cache file is being read in background. It's not saved meanwhile, so unread devices are
+     * not lost.
+     */
+    private volatile boolean cacheLoadPending;
+
+    private long verifyTimeout = DEFAULT_VERIFY_TIMEOUT;
+
+    private long lostGracePeriod;
+
+    private boolean dutyCycleEnabled;
+
+    private long stablePeriod = DEFAULT_STABLE_PERIOD;
+
+    private long scanWindow = DEFAULT_SCAN_WINDOW;
+
+    private long idleInterval = DEFAULT_IDLE_INTERVAL;
+
+    private long rescanWindow = DEFAULT_RESCAN_WINDOW;
+
+    private long lastChangeTime;
+
+    private long idleStartTime;
+
+    private final Runnable dutyCycleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            advanceDutyCycle();
+        }
+    };
+
+    private Handler handler;
+
+    private final Runnable removeUnverifiedServicesRunnable = new Runnable() {
+        @Override
+        public void run() {
+            removeUnverifiedServices();
+        }
+    };
+
     private boolean isRunning;
 
+    private boolean isScanning;
+
+    /**
+     * Phases of duty cycled discovery
+     */
+    enum ScanPhase {
+        /** Discovery runs until stop() is called */
+        CONTINUOUS,
+        /** Discovery runs until the device set is stable and no devices are found */
+        AGGRESSIVE,
+        /** Discovery is paused */
+        IDLE,
+        /** Discovery runs for a short window */
+        WINDOW
+    }
+
+    ScanPhase scanPhase = ScanPhase.CONTINUOUS;
+
     DiscoveryController.IDiscoveryListener fireTVListener;
 
     ConcurrentHashMap<String, ServiceDescription> foundServices
@@ -60,13 +172,48 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
     CopyOnWriteArrayList<DiscoveryProviderListener> serviceListeners
             = new CopyOnWriteArrayList<>();
 
+    ConcurrentHashMap<String, ServiceDescription> unverifiedServices
+            = new ConcurrentHashMap<>();
+
+    /**
+     * Found services which a rescan expects discovery to report again
+     */
+    ConcurrentHashMap<String, ServiceDescription> unconfirmedServices
+            = new ConcurrentHashMap<>();
+
+    ConcurrentHashMap<String, FlapState> flapStates
+            = new ConcurrentHashMap<>();
+
+    private final Object snapshotLock = new Object();
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    final FireTVDiscoveryDispatcher dispatcher
+            = new FireTVDiscoveryDispatcher(this, serviceListeners);
+
     public FireTVDiscoveryProvider(Context context) {
         this(new DiscoveryController(context));
     }
 
     public FireTVDiscoveryProvider(DiscoveryController discoveryController) {
+        this(discoveryController, null);
+    }
+
+    /**
+     * Create a provider which keeps last seen devices in the given file. The file is read in
+     * background and cached devices are reported as soon as they are read and discovery is
+     * started. They stay unverified until Fling SDK discovers them again. A confirmed device is then removed and added again with a new service
+     * description, because services created for a cached device have no player.
+     */
+    public FireTVDiscoveryProvider(Context context, File cacheFile) {
+        this(new DiscoveryController(context), cacheFile);
+    }
+
+    public FireTVDiscoveryProvider(DiscoveryController discoveryController, File cacheFile) {
         this.discoveryController = discoveryController;
         this.fireTVListener = new FireTVDiscoveryListener();
+        this.deviceCache = cacheFile != null ? new FireTVDeviceCache(cacheFile) : null;
+        loadCachedServices();
     }
 
     /**
@@ -75,25 +222,43 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
     @Override
     public void start() {
         if (!isRunning) {
-            discoveryController.start(fireTVListener);
+            startScan();
             isRunning = true;
+            announceUnverifiedServices();
+            if (dutyCycleEnabled) {
+                enterAggressivePhase();
+            }
         }
     }
 
     /**
      * Safely stop discovery and remove all found FireTV services because they don't work when
-     * discovery is stopped. Ignore if it's already stopped.
+     * discovery is stopped. Ignore if it's already stopped. If a cache file is set the services
+     * are saved to it before removal.
      */
     @Override
     public void stop() {
         if (isRunning) {
-            discoveryController.stop();
+            stopScan();
             isRunning = false;
         }
-        for (ServiceDescription serviceDescription : foundServices.values()) {
-            notifyListenersThatServiceLost(serviceDescription);
+        scanPhase = ScanPhase.CONTINUOUS;
+        saveCachedServices();
+        if (handler != null) {
+            handler.removeCallbacks(dutyCycleRunnable);
+            handler.removeCallbacks(removeUnverifiedServicesRunnable);
+            for (FlapState flapState : flapStates.values()) {
+                handler.removeCallbacks(flapState);
+            }
+        }
+        flapStates.clear();
+        for (Map.Entry<String, ServiceDescription> entry : foundServices.entrySet()) {
+            notifyListenersThatServiceLost(entry.getKey(), entry.getValue());
         }
         foundServices.clear();
+        unconfirmedServices.clear();
+        removeUnverifiedServices();
+        publishSnapshot();
     }
 
     /**
@@ -106,26 +271,52 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
     }
 
     /**
-     * Invokes restart method since FlingSDK doesn't have analog of rescan
+     * Reconcile found services with discovery without removing them first, so listeners are
+     * notified only about actual changes. All found services are marked unconfirmed, and the
+     * ones which discovery doesn't report again within the rescan window are removed together
+     * with cached services which are still unverified. Stopping discovery controller tears down
+     * status callbacks of found players, so it's restarted only when no services are found.
+     * In duty cycled mode discovery also goes back to continuous scanning.
      */
     @Override
     public void rescan() {
-        // discovery controller doesn't have rescan capability
-        restart();
+        if (!isRunning) {
+            start();
+            return;
+        }
+        if (foundServices.isEmpty()) {
+            // discovery controller doesn't have rescan capability, so a new cycle is started
+            stopScan();
+        } else {
+            unconfirmedServices.putAll(foundServices);
+        }
+        startScan();
+        if (!unverifiedServices.isEmpty() || !unconfirmedServices.isEmpty()) {
+            getHandler().removeCallbacks(removeUnverifiedServicesRunnable);
+            getHandler().postDelayed(removeUnverifiedServicesRunnable, rescanWindow);
+        }
+        if (dutyCycleEnabled) {
+            enterAggressivePhase();
+        }
     }
 
     /**
-     * Stop discovery and removes all cached services
+     * Stop discovery and removes all cached services, including the ones in a cache file
      */
     @Override
     public void reset() {
+        cacheLoadPending = false;
         foundServices.clear();
+        unverifiedServices.clear();
         stop();
     }
 
     @Override
     public void addListener(DiscoveryProviderListener listener) {
         serviceListeners.add(listener);
+        if (isRunning && dutyCycleEnabled && scanPhase != ScanPhase.AGGRESSIVE) {
+            enterAggressivePhase();
+        }
     }
 
     @Override
@@ -157,45 +348,455 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
         // intentionally left blank
     }
 
+    /**
+     * Get an immutable view of currently known services. It can be called from any thread
+     * without locking. Generation number of the snapshot is increased each time a service is
+     * added or removed, so comparing generations is a cheap way to check for changes.
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+
     @Override
     public boolean isEmpty() {
-        return foundServices.isEmpty();
+        return foundServices.isEmpty() && unverifiedServices.isEmpty();
+    }
+
+    /**
+     * Check if a service was confirmed by discovery. Services loaded from a cache file are
+     * unverified and can't be controlled until they are discovered again.
+     */
+    public boolean isServiceVerified(ServiceDescription serviceDescription) {
+        if (serviceDescription == null) {
+            return false;
+        }
+        String uid = serviceDescription.getUUID();
+        return uid == null || unverifiedServices.get(uid) != serviceDescription;
+    }
+
+    /**
+     * Set time in milliseconds for discovery to confirm devices loaded from a cache file. Devices
+     * which are not confirmed within this time are removed.
+     */
+    public void setVerifyTimeout(long verifyTimeout) {
+        this.verifyTimeout = verifyTimeout;
+    }
+
+    public long getVerifyTimeout() {
+        return verifyTimeout;
+    }
+
+    /**
+     * Enable duty cycled discovery. It saves radio and CPU only while no devices are found:
+     * once no devices have been found or lost for the stable period, discovery backs off to
+     * short periodic scan windows and is paused between them. Fling players don't work while
+     * discovery is stopped, so as long as any device is found discovery scans continuously, the
+     * same as without duty cycling. It also scans continuously after start, rescan or when a
+     * listener is added. Disabled by default.
+     */
+    public void setDutyCycleEnabled(boolean dutyCycleEnabled) {
+        this.dutyCycleEnabled = dutyCycleEnabled;
+        if (!isRunning) {
+            return;
+        }
+        if (dutyCycleEnabled) {
+            enterAggressivePhase();
+        } else {
+            getHandler().removeCallbacks(dutyCycleRunnable);
+            scanPhase = ScanPhase.CONTINUOUS;
+            startScan();
+        }
     }
 
-    private void notifyListenersThatServiceAdded(final ServiceDescription serviceDescription) {
-        Util.runOnUI(new Runnable() {
+    public boolean isDutyCycleEnabled() {
+        return dutyCycleEnabled;
+    }
+
+    /**
+     * Set timing of duty cycled discovery in milliseconds
+     *
+     * @param stablePeriod time without changes after which discovery backs off
+     * @param scanWindow duration of a periodic scan
+     * @param idleInterval pause between periodic scans
+     */
+    public void setDutyCycle(long stablePeriod, long scanWindow, long idleInterval) {
+        this.stablePeriod = stablePeriod;
+        this.scanWindow = scanWindow;
+        this.idleInterval = idleInterval;
+    }
+
+    public long getStablePeriod() {
+        return stablePeriod;
+    }
+
+    public long getScanWindow() {
+        return scanWindow;
+    }
+
+    public long getIdleInterval() {
+        return idleInterval;
+    }
+
+    /**
+     * Set time in milliseconds for a rescan to confirm devices loaded from a cache file. Devices
+     * which are not confirmed within this time after rescan are removed.
+     */
+    public void setRescanWindow(long rescanWindow) {
+        this.rescanWindow = rescanWindow;
+    }
+
+    public long getRescanWindow() {
+        return rescanWindow;
+    }
+
+    /**
+     * Set time in milliseconds during which a lost device is kept before it's removed. If the
+     * device is discovered again within this time listeners are not notified at all. Devices
+     * which flap repeatedly get a longer grace period. Default value is 0, which removes lost
+     * devices right away.
+     */
+    public void setLostGracePeriod(long lostGracePeriod) {
+        this.lostGracePeriod = lostGracePeriod;
+    }
+
+    public long getLostGracePeriod() {
+        return lostGracePeriod;
+    }
+
+    /**
+     * Set executor which delivers discovery events to listeners. Null value restores default
+     * delivery on the main thread.
+     *
+     * @see FireTVCallbackExecutors
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        dispatcher.setExecutor(callbackExecutor);
+    }
+
+    public Executor getCallbackExecutor() {
+        return dispatcher.getExecutor();
+    }
+
+    /**
+     * Set time in milliseconds during which discovery events are collected and then delivered to
+     * listeners as one batch. A service which is found and lost within one window
+     * is not reported at all. Default value is 0, which delivers each event right away.
+     */
+    public void setDispatchWindow(long dispatchWindow) {
+        dispatcher.setWindow(dispatchWindow);
+    }
+
+    public long getDispatchWindow() {
+        return dispatcher.getWindow();
+    }
+
+    /**
+     * Read the cache file in background, so that constructor doesn't block the calling thread on
+     * disk. Cached services are added on the main thread.
+     */
+    private void loadCachedServices() {
+        if (deviceCache == null) {
+            return;
+        }
+        cacheLoadPending = true;
+        final Handler mainHandler = getHandler();
+        Util.runInBackground(new Runnable() {
             @Override
             public void run() {
-                for (DiscoveryProviderListener listener : serviceListeners) {
-                    listener.onServiceAdded(FireTVDiscoveryProvider.this, serviceDescription);
-                }
+                final List<FireTVDeviceCache.Entry> entries =
+                        deviceCache.load(System.currentTimeMillis(), DEFAULT_CACHE_MAX_AGE);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        addCachedServices(entries);
+                    }
+                });
             }
         });
     }
 
-    private void notifyListenersThatServiceLost(final ServiceDescription serviceDescription) {
-        Util.runOnUI(new Runnable() {
+    /**
+     * Add cached devices which are not discovered yet as unverified services. They are announced
+     * right away if discovery is already started.
+     */
+    private void addCachedServices(List<FireTVDeviceCache.Entry> entries) {
+        if (!cacheLoadPending) {
+            // cache was reset before it was read
+            return;
+        }
+        cacheLoadPending = false;
+        Map<String, ServiceDescription> added = new HashMap<>();
+        for (FireTVDeviceCache.Entry entry : entries) {
+            if (foundServices.containsKey(entry.uid)) {
+                continue;
+            }
+            ServiceDescription serviceDescription = new ServiceDescription();
+            serviceDescription.setFriendlyName(entry.friendlyName);
+            serviceDescription.setIpAddress(entry.uid);
+            serviceDescription.setServiceID(FireTVService.ID);
+            serviceDescription.setUUID(entry.uid);
+            serviceDescription.setLastDetection(entry.lastSeen);
+            if (unverifiedServices.putIfAbsent(entry.uid, serviceDescription) == null) {
+                added.put(entry.uid, serviceDescription);
+            }
+        }
+        publishSnapshot();
+        if (isRunning && !added.isEmpty()) {
+            for (Map.Entry<String, ServiceDescription> entry : added.entrySet()) {
+                notifyListenersThatServiceAdded(entry.getKey(), entry.getValue());
+            }
+            getHandler().postDelayed(removeUnverifiedServicesRunnable, verifyTimeout);
+        }
+    }
+
+    private void saveCachedServices() {
+        if (deviceCache == null || cacheLoadPending) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        final List<FireTVDeviceCache.Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, ServiceDescription> entry : foundServices.entrySet()) {
+            entries.add(new FireTVDeviceCache.Entry(entry.getKey(),
+                    entry.getValue().getFriendlyName(), now));
+        }
+        for (Map.Entry<String, ServiceDescription> entry : unverifiedServices.entrySet()) {
+            entries.add(new FireTVDeviceCache.Entry(entry.getKey(),
+                    entry.getValue().getFriendlyName(), entry.getValue().getLastDetection()));
+        }
+        Util.runInBackground(new Runnable() {
             @Override
             public void run() {
-                for (DiscoveryProviderListener listener : serviceListeners) {
-                    listener.onServiceRemoved(FireTVDiscoveryProvider.this, serviceDescription);
-                }
+                deviceCache.save(entries);
             }
         });
     }
 
-    private void notifyListenersThatDiscoveryFailed(final ServiceCommandError error) {
-        Util.runOnUI(new Runnable() {
-            @Override
-            public void run() {
-                for (DiscoveryProviderListener listener : serviceListeners) {
-                    listener.onServiceDiscoveryFailed(FireTVDiscoveryProvider.this, error);
+    private void announceUnverifiedServices() {
+        if (unverifiedServices.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, ServiceDescription> entry : unverifiedServices.entrySet()) {
+            notifyListenersThatServiceAdded(entry.getKey(), entry.getValue());
+        }
+        getHandler().postDelayed(removeUnverifiedServicesRunnable, verifyTimeout);
+    }
+
+    private void removeUnverifiedServices() {
+        boolean removed = false;
+        for (Map.Entry<String, ServiceDescription> entry : unverifiedServices.entrySet()) {
+            if (unverifiedServices.remove(entry.getKey(), entry.getValue())) {
+                notifyListenersThatServiceLost(entry.getKey(), entry.getValue());
+                removed = true;
+            }
+        }
+        for (Map.Entry<String, ServiceDescription> entry : unconfirmedServices.entrySet()) {
+            if (unconfirmedServices.remove(entry.getKey(), entry.getValue())
+                    && foundServices.remove(entry.getKey(), entry.getValue())) {
+                lastChangeTime = SystemClock.elapsedRealtime();
+                notifyListenersThatServiceLost(entry.getKey(), entry.getValue());
+                removed = true;
+            }
+        }
+        if (removed) {
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Publish a new snapshot if the set of known services has changed. Snapshots are built under
+     * a lock to keep generations in order, readers just take the current reference.
+     */
+    void publishSnapshot() {
+        synchronized (snapshotLock) {
+            Map<String, ServiceDescription> services = new HashMap<>(foundServices);
+            services.putAll(unverifiedServices);
+            Snapshot current = snapshot.get();
+            if (!services.equals(current.services)) {
+                snapshot.set(new Snapshot(current.generation + 1, services));
+            }
+        }
+    }
+
+    private void startScan() {
+        if (!isScanning) {
+            discoveryController.start(fireTVListener);
+            isScanning = true;
+        }
+    }
+
+    private void stopScan() {
+        if (isScanning) {
+            discoveryController.stop();
+            isScanning = false;
+        }
+    }
+
+    private void enterAggressivePhase() {
+        scanPhase = ScanPhase.AGGRESSIVE;
+        lastChangeTime = SystemClock.elapsedRealtime();
+        startScan();
+        getHandler().removeCallbacks(dutyCycleRunnable);
+        getHandler().postDelayed(dutyCycleRunnable, stablePeriod);
+    }
+
+    private void enterIdlePhase() {
+        scanPhase = ScanPhase.IDLE;
+        idleStartTime = SystemClock.elapsedRealtime();
+        stopScan();
+        getHandler().postDelayed(dutyCycleRunnable, idleInterval);
+    }
+
+    private void enterScanWindow() {
+        scanPhase = ScanPhase.WINDOW;
+        startScan();
+        getHandler().postDelayed(dutyCycleRunnable, scanWindow);
+    }
+
+    void advanceDutyCycle() {
+        if (!isRunning || !dutyCycleEnabled) {
+            return;
+        }
+        switch (scanPhase) {
+            case AGGRESSIVE:
+                long stableTime = SystemClock.elapsedRealtime() - lastChangeTime;
+                if (stableTime < stablePeriod) {
+                    getHandler().postDelayed(dutyCycleRunnable, stablePeriod - stableTime);
+                } else if (!foundServices.isEmpty()) {
+                    // stopping discovery controller tears down status callbacks of found players
+                    getHandler().postDelayed(dutyCycleRunnable, stablePeriod);
+                } else {
+                    enterIdlePhase();
+                }
+                break;
+            case IDLE:
+                enterScanWindow();
+                break;
+            case WINDOW:
+                if (lastChangeTime >= idleStartTime) {
+                    enterAggressivePhase();
+                } else {
+                    enterIdlePhase();
                 }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Handler getHandler() {
+        if (handler == null) {
+            handler = new Handler(Looper.getMainLooper());
+        }
+        return handler;
+    }
+
+    private void removeLostService(FlapState flapState) {
+        synchronized (flapState) {
+            if (!flapState.removalPending) {
+                return;
             }
-        });
+            flapState.removalPending = false;
+        }
+        flapStates.remove(flapState.uid, flapState);
+        unconfirmedServices.remove(flapState.uid);
+        ServiceDescription serviceDescription = foundServices.remove(flapState.uid);
+        if (serviceDescription != null) {
+            lastChangeTime = SystemClock.elapsedRealtime();
+            publishSnapshot();
+            notifyListenersThatServiceLost(flapState.uid, serviceDescription);
+        }
+    }
+
+    private void notifyListenersThatServiceAdded(String uid,
+                                                 ServiceDescription serviceDescription) {
+        dispatcher.serviceAdded(uid, serviceDescription);
+    }
+
+    private void notifyListenersThatServiceLost(String uid,
+                                                ServiceDescription serviceDescription) {
+        dispatcher.serviceRemoved(uid, serviceDescription);
+    }
+
+    private void notifyListenersThatDiscoveryFailed(final ServiceCommandError error) {
+        dispatcher.discoveryFailed(error);
     }
 
 
+    /**
+     * Immutable set of known services stamped with a generation number
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0,
+                Collections.<String, ServiceDescription>emptyMap());
+
+        final long generation;
+
+        final Map<String, ServiceDescription> services;
+
+        Snapshot(long generation, Map<String, ServiceDescription> services) {
+            this.generation = generation;
+            this.services = Collections.unmodifiableMap(services);
+        }
+
+        /**
+         * Get a number which is increased each time a service is added or removed
+         */
+        public long getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Get services mapped by unique identifier of a device
+         */
+        public Map<String, ServiceDescription> getServices() {
+            return services;
+        }
+
+        public ServiceDescription getService(String uid) {
+            return services.get(uid);
+        }
+
+        public int size() {
+            return services.size();
+        }
+
+        public boolean isEmpty() {
+            return services.isEmpty();
+        }
+
+        /**
+         * Check if services have changed since a snapshot with the given generation
+         */
+        public boolean isNewerThan(long generation) {
+            return this.generation > generation;
+        }
+    }
+
+    /**
+     * Hysteresis state of a found device. It's posted as a delayed removal when the device is
+     * lost and counts how many times the device came back before the removal.
+     */
+    class FlapState implements Runnable {
+
+        final String uid;
+
+        int flapCount;
+
+        long foundTime;
+
+        boolean removalPending;
+
+        FlapState(String uid) {
+            this.uid = uid;
+        }
+
+        @Override
+        public void run() {
+            removeLostService(this);
+        }
+    }
+
     class FireTVDiscoveryListener implements DiscoveryController.IDiscoveryListener {
 
         @Override
@@ -207,12 +808,25 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
             ServiceDescription serviceDescription = foundServices.get(uid);
 
             if (serviceDescription == null) {
+                lastChangeTime = SystemClock.elapsedRealtime();
+                // a service created for a cached device has no player, so the cached device is
+                // removed and reported again as a new service with a working player
+                ServiceDescription cachedService = unverifiedServices.remove(uid);
                 serviceDescription = new ServiceDescription();
                 updateServiceDescription(serviceDescription, remoteMediaPlayer);
                 foundServices.put(uid, serviceDescription);
-                notifyListenersThatServiceAdded(serviceDescription);
+                publishSnapshot();
+                if (lostGracePeriod > 0) {
+                    getFlapState(uid).foundTime = SystemClock.elapsedRealtime();
+                }
+                if (cachedService != null) {
+                    notifyListenersThatServiceLost(uid, cachedService);
+                }
+                notifyListenersThatServiceAdded(uid, serviceDescription);
             } else {
                 updateServiceDescription(serviceDescription, remoteMediaPlayer);
+                unconfirmedServices.remove(uid);
+                cancelPendingRemoval(uid);
             }
         }
 
@@ -221,11 +835,21 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
             if (remoteMediaPlayer == null) {
                 return;
             }
-            ServiceDescription serviceDescription
-                    = foundServices.get(remoteMediaPlayer.getUniqueIdentifier());
+            String uid = remoteMediaPlayer.getUniqueIdentifier();
+            ServiceDescription serviceDescription = foundServices.get(uid);
+            if (serviceDescription == null) {
+                serviceDescription = unverifiedServices.remove(uid);
+            } else if (lostGracePeriod > 0) {
+                scheduleRemoval(uid);
+                return;
+            } else {
+                foundServices.remove(uid);
+                unconfirmedServices.remove(uid);
+            }
             if (serviceDescription != null) {
-                notifyListenersThatServiceLost(serviceDescription);
-                foundServices.remove(remoteMediaPlayer.getUniqueIdentifier());
+                lastChangeTime = SystemClock.elapsedRealtime();
+                publishSnapshot();
+                notifyListenersThatServiceLost(uid, serviceDescription);
             }
         }
 
@@ -235,6 +859,51 @@ public class FireTVDiscoveryProvider implements DiscoveryProvider {
             notifyListenersThatDiscoveryFailed(error);
         }
 
+        private FlapState getFlapState(String uid) {
+            FlapState flapState = flapStates.get(uid);
+            if (flapState == null) {
+                FlapState newState = new FlapState(uid);
+                flapState = flapStates.putIfAbsent(uid, newState);
+                if (flapState == null) {
+                    flapState = newState;
+                }
+            }
+            return flapState;
+        }
+
+        private void scheduleRemoval(String uid) {
+            FlapState flapState = getFlapState(uid);
+            long delay;
+            synchronized (flapState) {
+                if (flapState.removalPending) {
+                    return;
+                }
+                long now = SystemClock.elapsedRealtime();
+                if (now - flapState.foundTime >= STABLE_PERIOD_FACTOR * lostGracePeriod) {
+                    flapState.flapCount = 0;
+                }
+                flapState.removalPending = true;
+                delay = lostGracePeriod * (1 + flapState.flapCount);
+            }
+            getHandler().postDelayed(flapState, delay);
+        }
+
+        private void cancelPendingRemoval(String uid) {
+            FlapState flapState = flapStates.get(uid);
+            if (flapState == null) {
+                return;
+            }
+            synchronized (flapState) {
+                if (!flapState.removalPending) {
+                    return;
+                }
+                flapState.removalPending = false;
+                flapState.flapCount = Math.min(flapState.flapCount + 1, MAX_FLAP_COUNT);
+                flapState.foundTime = SystemClock.elapsedRealtime();
+            }
+            getHandler().removeCallbacks(flapState);
+        }
+
         private void updateServiceDescription(ServiceDescription serviceDescription,
                                               RemoteMediaPlayer remoteMediaPlayer) {
             String uid = remoteMediaPlayer.getUniqueIdentifier();
@@ -0,0 +1,131 @@
+/*
+ * FireTVCallbackExecutors
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import com.connectsdk.core.Util;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Executors for delivering FireTV service and discovery callbacks. By default callbacks are
+ * delivered on the main thread. Consumers without UI can deliver them on a dedicated thread, on
+ * their own Executor or directly on the thread which receives events from Fling SDK.
+ */
+public final class FireTVCallbackExecutors {
+
+    private static final Executor MAIN_THREAD = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            Util.runOnUI(command);
+        }
+    };
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private FireTVCallbackExecutors() {
+    }
+
+    /**
+     * Get executor which delivers callbacks on the main thread
+     */
+    public static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+
+    /**
+     * Get executor which delivers callbacks inline on the calling thread. Listeners must be
+     * thread safe and must not block.
+     */
+    public static Executor direct() {
+        return DIRECT;
+    }
+
+    /**
+     * Create executor which delivers callbacks on the thread of the given handler
+     */
+    public static HandlerExecutor forHandler(Handler handler) {
+        return new HandlerExecutor(handler, null);
+    }
+
+    /**
+     * Create executor which delivers callbacks on a new dedicated thread. The thread should be
+     * stopped with {@link HandlerExecutor#quit()} when it's not needed anymore.
+     */
+    public static HandlerExecutor newHandlerThread(String name) {
+        HandlerThread thread = new HandlerThread(name);
+        thread.start();
+        return new HandlerExecutor(new Handler(thread.getLooper()), thread);
+    }
+
+    /**
+     * Executor which posts callbacks to a handler
+     */
+    public static final class HandlerExecutor implements Executor {
+
+        private final Handler handler;
+
+        private final HandlerThread thread;
+
+        HandlerExecutor(Handler handler, HandlerThread thread) {
+            this.handler = handler;
+            this.thread = thread;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            handler.post(command);
+        }
+
+        public Handler getHandler() {
+            return handler;
+        }
+
+        /**
+         * Stop the dedicated thread after pending callbacks are delivered. Ignored if the
+         * executor was created for an existing handler.
+         */
+        public void quit() {
+            if (thread == null) {
+                return;
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                thread.quitSafely();
+            } else {
+                // quitSafely() is not available, so the thread quits after callbacks which are
+                // already posted
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        thread.quit();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * FireTVCircuitBreaker
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.SystemClock;
+
+import com.amazon.whisperlink.service.fling.media.SimplePlayerException;
+
+import java.io.IOException;
+
+/**
+ * Circuit breaker of a single FireTV device. After a number of consecutive failures or
+ * timeouts the circuit opens and commands fail right away with FireTVServiceError with
+ * CIRCUIT_OPEN code instead of being sent to a device which doesn't respond. When the open
+ * period is over the circuit becomes half-open: a cheap status request is sent as a probe and
+ * commands keep failing fast until the probe succeeds, which closes the circuit. A failed probe
+ * opens the circuit for another period.
+ */
+public final class FireTVCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Sends a probe request and reports its result with probeSucceeded or probeFailed
+     */
+    interface Prober {
+
+        void probe();
+    }
+
+    /**
+     * Default number of consecutive failures which opens the circuit. Zero means that the
+     * circuit never opens.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 0;
+
+    /**
+     * Default time in milliseconds during which an open circuit fails commands before a probe
+     */
+    public static final long DEFAULT_OPEN_DURATION = 5000;
+
+    private final Prober prober;
+
+    private State state = State.CLOSED;
+
+    private int failureCount;
+
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+
+    private long openDuration = DEFAULT_OPEN_DURATION;
+
+    private long openTime;
+
+    private long probeTime;
+
+    FireTVCircuitBreaker(Prober prober) {
+        this.prober = prober;
+    }
+
+    /**
+     * Set number of consecutive failures which opens the circuit. Zero disables the breaker and
+     * closes the circuit.
+     */
+    public synchronized void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = Math.max(0, failureThreshold);
+        if (this.failureThreshold == 0) {
+            state = State.CLOSED;
+            failureCount = 0;
+        }
+    }
+
+    public synchronized int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Set time in milliseconds during which an open circuit fails commands before a probe is
+     * sent. A probe which isn't answered within this time is sent again.
+     */
+    public synchronized void setOpenDuration(long openDuration) {
+        this.openDuration = Math.max(0, openDuration);
+    }
+
+    public synchronized long getOpenDuration() {
+        return openDuration;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Get number of consecutive failures
+     */
+    public synchronized int getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * Close the circuit and forget failures
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        failureCount = 0;
+    }
+
+    /**
+     * Check if a request can be sent to device. A probe is sent if the open period is over.
+     */
+    boolean allowRequest() {
+        long now;
+        synchronized (this) {
+            if (state == State.CLOSED) {
+                return true;
+            }
+            now = SystemClock.elapsedRealtime();
+            if (state == State.OPEN && now - openTime < openDuration
+                    || state == State.HALF_OPEN && now - probeTime < openDuration) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeTime = now;
+        }
+        prober.probe();
+        return false;
+    }
+
+    synchronized void recordSuccess() {
+        if (state == State.CLOSED) {
+            failureCount = 0;
+        }
+    }
+
+    synchronized void recordFailure() {
+        if (state != State.CLOSED || failureThreshold == 0) {
+            return;
+        }
+        failureCount++;
+        if (failureCount >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * Record a request which has failed with the given cause. An error reply of the device
+     * player proves that device is alive, so only timeouts and transport failures are counted.
+     */
+    void recordError(Throwable cause) {
+        if (isDeviceReply(cause)) {
+            recordSuccess();
+        } else {
+            recordFailure();
+        }
+    }
+
+    /**
+     * Fling SDK reports an error reply of the device player as IllegalArgumentException or
+     * IllegalStateException, or as IOException caused by SimplePlayerException. Other errors
+     * come from the connection.
+     */
+    static boolean isDeviceReply(Throwable cause) {
+        return cause instanceof IllegalArgumentException
+                || cause instanceof IllegalStateException
+                || cause instanceof IOException
+                        && cause.getCause() instanceof SimplePlayerException;
+    }
+
+    synchronized void probeSucceeded() {
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            failureCount = 0;
+        }
+    }
+
+    synchronized void probeFailed() {
+        if (state == State.HALF_OPEN) {
+            open();
+        }
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openTime = SystemClock.elapsedRealtime();
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * FireTVCommandHandle
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.connectsdk.service.capability.listeners.ResponseListener;
+import com.connectsdk.service.command.FireTVServiceError;
+import com.connectsdk.service.command.ServiceCommandError;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle of a FireTV command which allows to abandon it. The listener of a command receives
+ * exactly one result: the response from device, FireTVServiceError with TIMEOUT code if the
+ * deadline has passed, or FireTVServiceError with CANCELLED code if the command was cancelled.
+ * An abandoned command releases its place in the command queue, but a request which is already
+ * sent to device can't be recalled.
+ */
+public final class FireTVCommandHandle<T> implements FireTVTimedListener<T>, Runnable {
+
+    /**
+     * Request or command which holds the handle until the result is received
+     */
+    interface Owner {
+
+        /**
+         * Forget the handle
+         * @return true if the request of the handle was already sent to device
+         */
+        boolean release(FireTVCommandHandle<?> handle);
+    }
+
+    private static final String ERROR_TIMEOUT = "Command timed out";
+
+    private static final String ERROR_CANCELLED = "Command cancelled";
+
+    private final ResponseListener<T> listener;
+
+    private final Executor executor;
+
+    private final Handler handler;
+
+    private final FireTVCircuitBreaker circuitBreaker;
+
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    private Owner owner;
+
+    FireTVCommandHandle(ResponseListener<T> listener, Executor executor, Handler handler,
+                        FireTVCircuitBreaker circuitBreaker) {
+        this.listener = listener;
+        this.executor = executor;
+        this.handler = handler;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Cancel the command. Listener receives FireTVServiceError with CANCELLED code.
+     * @return false if the command is already completed
+     */
+    public boolean cancel() {
+        return abandon(new FireTVServiceError(FireTVServiceError.CANCELLED, ERROR_CANCELLED),
+                false);
+    }
+
+    /**
+     * Check if the result is already delivered or the command was abandoned
+     */
+    public boolean isDone() {
+        return done.get();
+    }
+
+    /**
+     * Fail the command if it's not completed within the timeout. A command whose deadline has
+     * already passed fails right away and isn't counted as a failure of device.
+     */
+    void scheduleTimeout(long timeout) {
+        if (timeout > 0) {
+            handler.postDelayed(this, timeout);
+        } else {
+            abandon(new FireTVServiceError(FireTVServiceError.TIMEOUT, ERROR_TIMEOUT), false);
+        }
+    }
+
+    /**
+     * Attach the handle to its owner. If the command is already abandoned the owner is released
+     * right away. Must not be called while the owner is locked.
+     */
+    void bind(Owner owner) {
+        synchronized (this) {
+            if (!done.get()) {
+                this.owner = owner;
+                return;
+            }
+        }
+        owner.release(this);
+    }
+
+    /**
+     * Timeout, which counts as a failure of device if the request was already sent to it.
+     * A command which has expired while waiting in the local queue says nothing about device.
+     */
+    @Override
+    public void run() {
+        abandon(new FireTVServiceError(FireTVServiceError.TIMEOUT, ERROR_TIMEOUT), true);
+    }
+
+    @Override
+    public void onSuccess(T object) {
+        onSuccess(object, SystemClock.elapsedRealtime());
+    }
+
+    @Override
+    public void onError(ServiceCommandError error) {
+        onError(error, SystemClock.elapsedRealtime());
+    }
+
+    @Override
+    public void onSuccess(T object, long resultTime) {
+        if (done.compareAndSet(false, true)) {
+            handler.removeCallbacks(this);
+            if (listener != null) {
+                FireTVService.Completion.deliver(listener, object, null, resultTime);
+            }
+        }
+    }
+
+    @Override
+    public void onError(ServiceCommandError error, long resultTime) {
+        if (done.compareAndSet(false, true)) {
+            handler.removeCallbacks(this);
+            if (listener != null) {
+                FireTVService.Completion.deliver(listener, null, error, resultTime);
+            }
+        }
+    }
+
+    /**
+     * @param deviceFailure true if the command is abandoned because device didn't answer in time
+     * @return false if the command is already completed
+     */
+    private boolean abandon(ServiceCommandError error, boolean deviceFailure) {
+        if (!done.compareAndSet(false, true)) {
+            return false;
+        }
+        handler.removeCallbacks(this);
+        Owner currentOwner;
+        synchronized (this) {
+            currentOwner = owner;
+            owner = null;
+        }
+        boolean sent = currentOwner != null && currentOwner.release(this);
+        if (deviceFailure && sent && circuitBreaker != null) {
+            circuitBreaker.recordFailure();
+        }
+        FireTVService.Completion.postError(executor, listener, error);
+        return true;
+    }
+}
@@ -0,0 +1,358 @@
+/*
+ * FireTVGroupController
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.SystemClock;
+
+import com.connectsdk.core.MediaInfo;
+import com.connectsdk.service.capability.MediaPlayer;
+import com.connectsdk.service.capability.listeners.ResponseListener;
+import com.connectsdk.service.command.FireTVServiceError;
+import com.connectsdk.service.command.ServiceCommandError;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Controls a group of FireTV devices as one player. Each command is sent to all members without
+ * waiting for acknowledgements from the others, and the group listener receives a single result
+ * with the outcome and acknowledgement latency of every member.
+ *
+ * Commands are dispatched with the dispatch executor. By default it's direct, which is enough
+ * because FireTVService doesn't block on a request, but a thread pool can be used to dispatch
+ * commands to a large group from several threads.
+ */
+public class FireTVGroupController {
+
+    /**
+     * Listener which receives an aggregated result of a group command
+     */
+    public interface GroupResultListener {
+
+        void onComplete(GroupResult result);
+    }
+
+    /**
+     * Outcome of a command on a single member
+     */
+    public static final class MemberResult {
+
+        final FireTVService service;
+
+        final Object response;
+
+        final ServiceCommandError error;
+
+        final long latency;
+
+        MemberResult(FireTVService service, Object response, ServiceCommandError error,
+                     long latency) {
+            this.service = service;
+            this.response = response;
+            this.error = error;
+            this.latency = latency;
+        }
+
+        public FireTVService getService() {
+            return service;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        /**
+         * Get a response of the member or null if the command has failed
+         */
+        public Object getResponse() {
+            return response;
+        }
+
+        /**
+         * Get an error of the member or null if the command has succeeded
+         */
+        public ServiceCommandError getError() {
+            return error;
+        }
+
+        /**
+         * Get time in milliseconds between dispatching the command and its acknowledgement
+         */
+        public long getLatency() {
+            return latency;
+        }
+    }
+
+    /**
+     * Aggregated outcome of a command on all members, in the order of members
+     */
+    public static final class GroupResult {
+
+        final List<MemberResult> results;
+
+        GroupResult(List<MemberResult> results) {
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        public List<MemberResult> getResults() {
+            return results;
+        }
+
+        public List<MemberResult> getSucceeded() {
+            List<MemberResult> succeeded = new ArrayList<MemberResult>();
+            for (MemberResult result : results) {
+                if (result.isSuccessful()) {
+                    succeeded.add(result);
+                }
+            }
+            return succeeded;
+        }
+
+        public List<MemberResult> getFailed() {
+            List<MemberResult> failed = new ArrayList<MemberResult>();
+            for (MemberResult result : results) {
+                if (!result.isSuccessful()) {
+                    failed.add(result);
+                }
+            }
+            return failed;
+        }
+
+        /**
+         * Check if the command has succeeded on all members
+         */
+        public boolean isSuccessful() {
+            for (MemberResult result : results) {
+                if (!result.isSuccessful()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Get the biggest acknowledgement latency among members, which is the skew between
+         * the first and the last screen in the worst case
+         */
+        public long getMaxLatency() {
+            long maxLatency = 0;
+            for (MemberResult result : results) {
+                maxLatency = Math.max(maxLatency, result.latency);
+            }
+            return maxLatency;
+        }
+    }
+
+    /**
+     * Command which is sent to every member
+     */
+    interface Command {
+
+        void send(FireTVService service, ResponseListener<Object> listener);
+    }
+
+    private final List<FireTVService> members = new CopyOnWriteArrayList<FireTVService>();
+
+    private volatile Executor dispatchExecutor = FireTVCallbackExecutors.direct();
+
+    public FireTVGroupController() {
+    }
+
+    public FireTVGroupController(List<FireTVService> members) {
+        for (FireTVService member : members) {
+            addMember(member);
+        }
+    }
+
+    public void addMember(FireTVService service) {
+        if (service != null && !members.contains(service)) {
+            members.add(service);
+        }
+    }
+
+    public void removeMember(FireTVService service) {
+        members.remove(service);
+    }
+
+    public List<FireTVService> getMembers() {
+        return Collections.unmodifiableList(members);
+    }
+
+    /**
+     * Set executor which dispatches commands to members. Null value restores direct dispatch.
+     */
+    public void setDispatchExecutor(Executor dispatchExecutor) {
+        this.dispatchExecutor = dispatchExecutor != null
+                ? dispatchExecutor : FireTVCallbackExecutors.direct();
+    }
+
+    public Executor getDispatchExecutor() {
+        return dispatchExecutor;
+    }
+
+    public void playMedia(final MediaInfo mediaInfo, final boolean shouldLoop,
+                          GroupResultListener listener) {
+        execute(new Command() {
+            @Override
+            public void send(FireTVService service, final ResponseListener<Object> listener) {
+                service.playMedia(mediaInfo, shouldLoop, new LaunchForwarder(listener));
+            }
+        }, listener);
+    }
+
+    public void play(GroupResultListener listener) {
+        execute(new Command() {
+            @Override
+            public void send(FireTVService service, ResponseListener<Object> listener) {
+                service.play(listener);
+            }
+        }, listener);
+    }
+
+    public void pause(GroupResultListener listener) {
+        execute(new Command() {
+            @Override
+            public void send(FireTVService service, ResponseListener<Object> listener) {
+                service.pause(listener);
+            }
+        }, listener);
+    }
+
+    public void stop(GroupResultListener listener) {
+        execute(new Command() {
+            @Override
+            public void send(FireTVService service, ResponseListener<Object> listener) {
+                service.stop(listener);
+            }
+        }, listener);
+    }
+
+    public void seek(final long position, GroupResultListener listener) {
+        execute(new Command() {
+            @Override
+            public void send(FireTVService service, ResponseListener<Object> listener) {
+                service.seek(position, listener);
+            }
+        }, listener);
+    }
+
+    /**
+     * Send a command to all current members and deliver the aggregated result to listener when
+     * every member has responded. The listener is called on the thread which delivers the last
+     * member response.
+     */
+    void execute(final Command command, final GroupResultListener listener) {
+        final FireTVService[] targets = members.toArray(new FireTVService[0]);
+        final MemberResult[] results = new MemberResult[targets.length];
+        final AtomicInteger remaining = new AtomicInteger(targets.length);
+        if (targets.length == 0) {
+            if (listener != null) {
+                listener.onComplete(new GroupResult(Collections.<MemberResult>emptyList()));
+            }
+            return;
+        }
+        for (int i = 0; i < targets.length; i++) {
+            final int index = i;
+            final FireTVService service = targets[i];
+            dispatchExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    final long startTime = SystemClock.elapsedRealtime();
+                    // latency ends when the result is received from Fling SDK, so a delay of
+                    // the callback executor is not counted
+                    FireTVTimedListener<Object> memberListener = new FireTVTimedListener<Object>() {
+                        @Override
+                        public void onSuccess(Object object) {
+                            onSuccess(object, SystemClock.elapsedRealtime());
+                        }
+
+                        @Override
+                        public void onError(ServiceCommandError error) {
+                            onError(error, SystemClock.elapsedRealtime());
+                        }
+
+                        @Override
+                        public void onSuccess(Object object, long resultTime) {
+                            complete(new MemberResult(service, object, null,
+                                    resultTime - startTime));
+                        }
+
+                        @Override
+                        public void onError(ServiceCommandError error, long resultTime) {
+                            complete(new MemberResult(service, null, error,
+                                    resultTime - startTime));
+                        }
+
+                        private void complete(MemberResult result) {
+                            results[index] = result;
+                            if (remaining.decrementAndGet() == 0 && listener != null) {
+                                listener.onComplete(new GroupResult(Arrays.asList(results)));
+                            }
+                        }
+                    };
+                    try {
+                        command.send(service, memberListener);
+                    } catch (Exception e) {
+                        memberListener.onError(new FireTVServiceError("Error sending command",
+                                e));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Passes the launch result with its result time to a member listener
+     */
+    private static class LaunchForwarder implements MediaPlayer.LaunchListener,
+            FireTVTimedListener<MediaPlayer.MediaLaunchObject> {
+
+        private final ResponseListener<Object> listener;
+
+        LaunchForwarder(ResponseListener<Object> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onSuccess(MediaPlayer.MediaLaunchObject object) {
+            listener.onSuccess(object);
+        }
+
+        @Override
+        public void onError(ServiceCommandError error) {
+            listener.onError(error);
+        }
+
+        @Override
+        public void onSuccess(MediaPlayer.MediaLaunchObject object, long resultTime) {
+            FireTVService.Completion.<Object>deliver(listener, object, null, resultTime);
+        }
+
+        @Override
+        public void onError(ServiceCommandError error, long resultTime) {
+            FireTVService.Completion.deliver(listener, null, error, resultTime);
+        }
+    }
+}
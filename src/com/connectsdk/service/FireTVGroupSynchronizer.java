@@ -0,0 +1,415 @@
+/*
+ * FireTVGroupSynchronizer
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.connectsdk.service.capability.MediaControl;
+import com.connectsdk.service.capability.listeners.ResponseListener;
+import com.connectsdk.service.command.ServiceCommandError;
+import com.connectsdk.service.command.ServiceSubscription;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps playback of a FireTV group aligned. Position of each member is estimated from position
+ * pushes and from periodic position requests, which also measure round-trip time: a position
+ * reported by device is assumed to be taken half a round trip before it's received, similar to
+ * NTP. Once all members have answered a sync cycle, the median estimate is used as reference and
+ * members which drift from it more than the threshold are corrected with a relative seek.
+ */
+public class FireTVGroupSynchronizer {
+
+    /**
+     * Default interval in milliseconds between sync cycles
+     */
+    public static final long DEFAULT_SYNC_INTERVAL = 5000;
+
+    /**
+     * Default drift in milliseconds which is tolerated without correction
+     */
+    public static final long DEFAULT_DRIFT_THRESHOLD = 100;
+
+    /**
+     * Weight of a new round-trip time sample in the smoothed value is 1 / RTT_SMOOTHING
+     */
+    static final int RTT_SMOOTHING = 4;
+
+    private final FireTVGroupController group;
+
+    private final Map<FireTVService, Member> members = new HashMap<FireTVService, Member>();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable syncRunnable = new Runnable() {
+        @Override
+        public void run() {
+            sync();
+            if (isRunning) {
+                handler.postDelayed(this, syncInterval);
+            }
+        }
+    };
+
+    private volatile long syncInterval = DEFAULT_SYNC_INTERVAL;
+
+    private volatile long driftThreshold = DEFAULT_DRIFT_THRESHOLD;
+
+    private boolean isRunning;
+
+    private int cycle;
+
+    public FireTVGroupSynchronizer(FireTVGroupController group) {
+        this.group = group;
+    }
+
+    /**
+     * Start periodic synchronization of the group members. Members which are added to the group
+     * later are picked up by the next sync cycle.
+     */
+    public synchronized void start() {
+        if (!isRunning) {
+            isRunning = true;
+            handler.post(syncRunnable);
+        }
+    }
+
+    /**
+     * Stop synchronization. Corrections which are already sent are not cancelled.
+     */
+    public synchronized void stop() {
+        isRunning = false;
+        handler.removeCallbacks(syncRunnable);
+        for (Member member : members.values()) {
+            member.release();
+        }
+        members.clear();
+    }
+
+    public synchronized boolean isRunning() {
+        return isRunning;
+    }
+
+    public void setSyncInterval(long syncInterval) {
+        this.syncInterval = syncInterval;
+    }
+
+    public long getSyncInterval() {
+        return syncInterval;
+    }
+
+    public void setDriftThreshold(long driftThreshold) {
+        this.driftThreshold = driftThreshold;
+    }
+
+    public long getDriftThreshold() {
+        return driftThreshold;
+    }
+
+    /**
+     * Get drift in milliseconds of a member from the group reference measured in the last
+     * completed sync cycle. Positive value means that the member is ahead.
+     */
+    public synchronized long getDrift(FireTVService service) {
+        Member member = members.get(service);
+        return member != null ? member.drift : 0;
+    }
+
+    /**
+     * Get smoothed round-trip time in milliseconds of a member or -1 if it's not measured yet
+     */
+    public synchronized long getRoundTripTime(FireTVService service) {
+        Member member = members.get(service);
+        return member != null ? member.getRoundTripTime() : -1;
+    }
+
+    /**
+     * Run a sync cycle: request position from all members and correct them when all have
+     * answered
+     */
+    synchronized void sync() {
+        if (!isRunning) {
+            return;
+        }
+        updateMembers();
+        final int currentCycle = ++cycle;
+        List<Member> requested = new ArrayList<Member>();
+        for (Member member : members.values()) {
+            if (!member.isCorrecting()) {
+                requested.add(member);
+            }
+        }
+        final AtomicInteger remaining = new AtomicInteger(requested.size());
+        for (Member member : requested) {
+            member.service.requestPosition(new PositionRequest(member) {
+                @Override
+                void complete() {
+                    if (remaining.decrementAndGet() == 0) {
+                        correct(currentCycle);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Correct members which have drifted from the median position
+     */
+    synchronized void correct(int syncCycle) {
+        if (!isRunning || syncCycle != cycle) {
+            return;
+        }
+        long now = SystemClock.elapsedRealtime();
+        List<Member> sampled = new ArrayList<Member>();
+        for (Member member : members.values()) {
+            if (member.hasEstimate()) {
+                sampled.add(member);
+            }
+        }
+        if (sampled.size() < 2) {
+            return;
+        }
+        long[] estimates = new long[sampled.size()];
+        for (int i = 0; i < estimates.length; i++) {
+            estimates[i] = sampled.get(i).estimate(now);
+        }
+        long reference = median(estimates);
+        for (int i = 0; i < estimates.length; i++) {
+            Member member = sampled.get(i);
+            member.drift = estimates[i] - reference;
+            if (Math.abs(member.drift) > driftThreshold) {
+                member.correct(-member.drift);
+            }
+        }
+    }
+
+    private void updateMembers() {
+        List<FireTVService> services = group.getMembers();
+        Iterator<Map.Entry<FireTVService, Member>> iterator = members.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<FireTVService, Member> entry = iterator.next();
+            if (!services.contains(entry.getKey())) {
+                entry.getValue().release();
+                iterator.remove();
+            }
+        }
+        for (FireTVService service : services) {
+            if (!members.containsKey(service)) {
+                Member member = new Member(service);
+                members.put(service, member);
+                member.subscribe();
+            }
+        }
+    }
+
+    static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        if (sorted.length % 2 == 0) {
+            return (sorted[middle - 1] + sorted[middle]) / 2;
+        }
+        return sorted[middle];
+    }
+
+    /**
+     * Position request of a sync cycle which measures round-trip time. The round trip ends when
+     * the position is received from Fling SDK, so a delay of the callback executor is not counted.
+     */
+    abstract static class PositionRequest implements MediaControl.PositionListener,
+            FireTVTimedListener<Long> {
+
+        private final Member member;
+
+        private final long sendTime = SystemClock.elapsedRealtime();
+
+        PositionRequest(Member member) {
+            this.member = member;
+        }
+
+        /**
+         * Called when the member has answered the request
+         */
+        abstract void complete();
+
+        @Override
+        public void onSuccess(Long position) {
+            onSuccess(position, SystemClock.elapsedRealtime());
+        }
+
+        @Override
+        public void onError(ServiceCommandError error) {
+            complete();
+        }
+
+        @Override
+        public void onSuccess(Long position, long resultTime) {
+            if (position != null) {
+                member.recordRoundTrip(position, sendTime, resultTime);
+            }
+            complete();
+        }
+
+        @Override
+        public void onError(ServiceCommandError error, long resultTime) {
+            complete();
+        }
+    }
+
+    /**
+     * Position estimate and correction state of a single group member
+     */
+    static class Member implements MediaControl.PositionListener, FireTVTimedListener<Long> {
+
+        final FireTVService service;
+
+        private ServiceSubscription<MediaControl.PositionListener> subscription;
+
+        private long position;
+
+        private long sampleTime;
+
+        private boolean hasSample;
+
+        private long roundTripTime = -1;
+
+        private boolean correcting;
+
+        long drift;
+
+        Member(FireTVService service) {
+            this.service = service;
+        }
+
+        void subscribe() {
+            subscription = service.subscribePosition(this, true);
+        }
+
+        /**
+         * Stop listening to position pushes. The subscription is closed when no other
+         * listeners are left, so device stops pushing position updates.
+         */
+        void release() {
+            if (subscription != null) {
+                subscription.removeListener(this);
+                if (subscription.getListeners().isEmpty()) {
+                    subscription.unsubscribe();
+                }
+                subscription = null;
+            }
+        }
+
+        @Override
+        public void onSuccess(Long position) {
+            onSuccess(position, SystemClock.elapsedRealtime());
+        }
+
+        @Override
+        public void onError(ServiceCommandError error) {
+            // position pushes don't report errors
+        }
+
+        /**
+         * Position push from device, timestamped when it was received from Fling SDK
+         */
+        @Override
+        public void onSuccess(Long position, long pushTime) {
+            if (position != null) {
+                record(position, pushTime);
+            }
+        }
+
+        @Override
+        public void onError(ServiceCommandError error, long pushTime) {
+            // position pushes don't report errors
+        }
+
+        synchronized void recordRoundTrip(long position, long sendTime, long receiveTime) {
+            long sample = Math.max(0, receiveTime - sendTime);
+            if (roundTripTime < 0) {
+                roundTripTime = sample;
+            } else {
+                roundTripTime += (sample - roundTripTime) / RTT_SMOOTHING;
+            }
+            record(position, receiveTime);
+        }
+
+        synchronized void record(long position, long receiveTime) {
+            if (correcting) {
+                // position taken before the correction is done is outdated
+                return;
+            }
+            boolean playing = service.playbackState.isPlaying();
+            long oneWayDelay = roundTripTime > 0 ? roundTripTime / 2 : 0;
+            this.position = playing ? position + oneWayDelay : position;
+            this.sampleTime = receiveTime;
+            this.hasSample = true;
+        }
+
+        synchronized boolean hasEstimate() {
+            return hasSample && !correcting;
+        }
+
+        synchronized long estimate(long now) {
+            if (service.playbackState.isPlaying() && now > sampleTime) {
+                return position + (now - sampleTime);
+            }
+            return position;
+        }
+
+        synchronized long getRoundTripTime() {
+            return roundTripTime;
+        }
+
+        synchronized boolean isCorrecting() {
+            return correcting;
+        }
+
+        void correct(long offset) {
+            synchronized (this) {
+                correcting = true;
+                hasSample = false;
+            }
+            service.seekRelative(offset, new ResponseListener<Object>() {
+                @Override
+                public void onSuccess(Object object) {
+                    finishCorrection();
+                }
+
+                @Override
+                public void onError(ServiceCommandError error) {
+                    finishCorrection();
+                }
+            });
+        }
+
+        private synchronized void finishCorrection() {
+            correcting = false;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * FireTVMediaInfoCache
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.ImageInfo;
+import com.connectsdk.core.MediaInfo;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts media source and Fling metadata reported by FireTV device into MediaInfo. Metadata is
+ * parsed only when the device reports a new source or metadata, and the fields which MediaInfo
+ * needs are kept until then, so repeated requests only create a new MediaInfo. Missing fields
+ * are left null.
+ */
+final class FireTVMediaInfoCache {
+
+    private String source;
+
+    private String metadata;
+
+    private Fields fields;
+
+    synchronized MediaInfo get(String source, String metadata) throws JSONException {
+        if (fields == null || !equals(this.source, source) || !equals(this.metadata, metadata)) {
+            fields = metadata != null ? new Fields(new JSONObject(metadata)) : new Fields();
+            this.source = source;
+            this.metadata = metadata;
+        }
+        List<ImageInfo> images = null;
+        if (fields.iconUrl != null) {
+            images = new ArrayList<ImageInfo>(1);
+            images.add(new ImageInfo(fields.iconUrl));
+        }
+        return new MediaInfo(source, fields.mimeType, fields.title, fields.description, images);
+    }
+
+    private static boolean equals(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static final class Fields {
+
+        final String title;
+
+        final String description;
+
+        final String mimeType;
+
+        final String iconUrl;
+
+        Fields() {
+            title = null;
+            description = null;
+            mimeType = null;
+            iconUrl = null;
+        }
+
+        Fields(JSONObject json) throws JSONException {
+            title = getString(json, FireTVMetadataSerializer.META_TITLE);
+            description = getString(json, FireTVMetadataSerializer.META_DESCRIPTION);
+            mimeType = getString(json, FireTVMetadataSerializer.META_MIME_TYPE);
+            iconUrl = getString(json, FireTVMetadataSerializer.META_ICON_IMAGE);
+        }
+
+        private static String getString(JSONObject json, String name) throws JSONException {
+            return json.isNull(name) ? null : json.getString(name);
+        }
+    }
+}
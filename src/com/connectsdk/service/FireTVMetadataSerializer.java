@@ -0,0 +1,228 @@
+/*
+ * FireTVMetadataSerializer
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.ImageInfo;
+import com.connectsdk.core.MediaInfo;
+import com.connectsdk.core.SubtitleInfo;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+
+/**
+ * Writes Fling metadata JSON of a media item directly into a reusable buffer, without building
+ * a JSON tree. The output is the same as JSONObject produces on Android, including escaping.
+ * The serialized metadata of the last few MediaInfo instances is remembered, so launching the
+ * same instance on several devices or launching it again returns the same string. A remembered
+ * string is reused only while all fields which it was written from are the same objects.
+ */
+final class FireTVMetadataSerializer {
+
+    static final String META_TITLE = "title";
+    static final String META_DESCRIPTION = "description";
+    static final String META_MIME_TYPE = "type";
+    static final String META_ICON_IMAGE = "poster";
+    static final String META_NOREPLAY = "noreplay";
+    static final String META_TRACKS = "tracks";
+    static final String META_SRC = "src";
+    static final String META_KIND = "kind";
+    static final String META_SRCLANG = "srclang";
+    static final String META_LABEL = "label";
+
+    private static final String KIND_SUBTITLES = "subtitles";
+
+    private static final int CACHE_SIZE = 16;
+
+    private final StringBuilder buffer = new StringBuilder(256);
+
+    private final Entry[] entries = new Entry[CACHE_SIZE];
+
+    private int nextEntry;
+
+    /**
+     * Get metadata of the media item
+     */
+    synchronized String serialize(MediaInfo mediaInfo) {
+        String iconUrl = getIconUrl(mediaInfo);
+        for (Entry entry : entries) {
+            if (entry != null && entry.matches(mediaInfo, iconUrl)) {
+                return entry.metadata;
+            }
+        }
+        buffer.setLength(0);
+        write(mediaInfo, iconUrl);
+        String metadata = buffer.toString();
+        entries[nextEntry] = new Entry(mediaInfo, iconUrl, metadata);
+        nextEntry = (nextEntry + 1) % CACHE_SIZE;
+        return metadata;
+    }
+
+    private void write(MediaInfo mediaInfo, String iconUrl) {
+        buffer.append('{');
+        if (!isEmpty(mediaInfo.getTitle())) {
+            writeString(META_TITLE, mediaInfo.getTitle());
+        }
+        if (!isEmpty(mediaInfo.getDescription())) {
+            writeString(META_DESCRIPTION, mediaInfo.getDescription());
+        }
+        if (mediaInfo.getMimeType() != null) {
+            writeString(META_MIME_TYPE, mediaInfo.getMimeType());
+        }
+        if (!isEmpty(iconUrl)) {
+            writeString(META_ICON_IMAGE, iconUrl);
+        }
+        writeName(META_NOREPLAY);
+        buffer.append("true");
+        SubtitleInfo subtitleInfo = mediaInfo.getSubtitleInfo();
+        if (subtitleInfo != null) {
+            writeName(META_TRACKS);
+            buffer.append("[{");
+            writeString(META_KIND, KIND_SUBTITLES);
+            if (subtitleInfo.getUrl() != null) {
+                writeString(META_SRC, subtitleInfo.getUrl());
+            }
+            String label = subtitleInfo.getLabel();
+            writeString(META_LABEL, label == null ? "" : label);
+            String language = subtitleInfo.getLanguage();
+            writeString(META_SRCLANG, language == null ? "" : language);
+            buffer.append("}]");
+        }
+        buffer.append('}');
+    }
+
+    private void writeString(String name, String value) {
+        writeName(name);
+        writeQuoted(value);
+    }
+
+    private void writeName(String name) {
+        char last = buffer.charAt(buffer.length() - 1);
+        if (last != '{' && last != '[') {
+            buffer.append(',');
+        }
+        writeQuoted(name);
+        buffer.append(':');
+    }
+
+    private void writeQuoted(String value) {
+        buffer.append('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    buffer.append('\\').append(c);
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\b':
+                    buffer.append("\\b");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\f':
+                    buffer.append("\\f");
+                    break;
+                default:
+                    if (c <= 0x1F) {
+                        buffer.append("\\u00").append(Character.forDigit(c >> 4, 16))
+                                .append(Character.forDigit(c & 0xF, 16));
+                    } else {
+                        buffer.append(c);
+                    }
+                    break;
+            }
+        }
+        buffer.append('"');
+    }
+
+    private static String getIconUrl(MediaInfo mediaInfo) {
+        List<ImageInfo> images = mediaInfo.getImages();
+        if (images != null && images.size() > 0) {
+            ImageInfo image = images.get(0);
+            if (image != null) {
+                return image.getUrl();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Serialized metadata of a MediaInfo instance together with the fields it was written from
+     */
+    private static final class Entry {
+
+        private final WeakReference<MediaInfo> mediaInfo;
+
+        private final String title;
+
+        private final String description;
+
+        private final String mimeType;
+
+        private final String iconUrl;
+
+        private final SubtitleInfo subtitleInfo;
+
+        private final String subtitleUrl;
+
+        private final String subtitleLabel;
+
+        private final String subtitleLanguage;
+
+        final String metadata;
+
+        Entry(MediaInfo mediaInfo, String iconUrl, String metadata) {
+            this.mediaInfo = new WeakReference<MediaInfo>(mediaInfo);
+            this.title = mediaInfo.getTitle();
+            this.description = mediaInfo.getDescription();
+            this.mimeType = mediaInfo.getMimeType();
+            this.iconUrl = iconUrl;
+            this.subtitleInfo = mediaInfo.getSubtitleInfo();
+            this.subtitleUrl = subtitleInfo != null ? subtitleInfo.getUrl() : null;
+            this.subtitleLabel = subtitleInfo != null ? subtitleInfo.getLabel() : null;
+            this.subtitleLanguage = subtitleInfo != null ? subtitleInfo.getLanguage() : null;
+            this.metadata = metadata;
+        }
+
+        boolean matches(MediaInfo mediaInfo, String iconUrl) {
+            if (this.mediaInfo.get() != mediaInfo || this.iconUrl != iconUrl
+                    || title != mediaInfo.getTitle()
+                    || description != mediaInfo.getDescription()
+                    || mimeType != mediaInfo.getMimeType()
+                    || subtitleInfo != mediaInfo.getSubtitleInfo()) {
+                return false;
+            }
+            return subtitleInfo == null || subtitleUrl == subtitleInfo.getUrl()
+                    && subtitleLabel == subtitleInfo.getLabel()
+                    && subtitleLanguage == subtitleInfo.getLanguage();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * FireTVMimeTypeCache
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * MIME types which a single FireTV device reported as supported or unsupported. Types are
+ * compared case-insensitively, and a type with parameters such as codecs falls back to the
+ * answer for its base type if it wasn't probed itself. All methods are thread safe.
+ */
+class FireTVMimeTypeCache {
+
+    private final Map<String, Boolean> support = new ConcurrentHashMap<String, Boolean>();
+
+    private final Set<String> probing =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * Get device answer for the type
+     * @return null if the type wasn't probed yet
+     */
+    Boolean isSupported(String mimeType) {
+        String key = normalize(mimeType);
+        if (key == null) {
+            return null;
+        }
+        Boolean supported = support.get(key);
+        if (supported == null) {
+            int separator = key.indexOf(';');
+            if (separator > 0) {
+                supported = support.get(key.substring(0, separator).trim());
+            }
+        }
+        return supported;
+    }
+
+    void put(String mimeType, boolean supported) {
+        String key = normalize(mimeType);
+        if (key != null) {
+            support.put(key, supported);
+            probing.remove(key);
+        }
+    }
+
+    /**
+     * Mark the type as being probed
+     * @return false if the type is already known or a probe is already in flight
+     */
+    boolean startProbe(String mimeType) {
+        String key = normalize(mimeType);
+        return key != null && !support.containsKey(key) && probing.add(key);
+    }
+
+    /**
+     * Forget a probe which got no answer, so that the type can be probed again
+     */
+    void cancelProbe(String mimeType) {
+        String key = normalize(mimeType);
+        if (key != null) {
+            probing.remove(key);
+        }
+    }
+
+    private static String normalize(String mimeType) {
+        if (mimeType == null) {
+            return null;
+        }
+        String key = mimeType.trim().toLowerCase(Locale.US);
+        return key.isEmpty() ? null : key;
+    }
+}
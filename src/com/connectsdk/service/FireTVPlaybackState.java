@@ -0,0 +1,200 @@
+/*
+ * FireTVPlaybackState
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.amazon.whisperplay.fling.media.service.MediaPlayerStatus;
+
+/**
+ * In-memory model of FireTV playback state. It's updated from status pushes and from completed
+ * requests, and answers reads locally while the stored values are fresh enough. All timestamps
+ * are taken from a monotonic clock in milliseconds.
+ */
+class FireTVPlaybackState {
+
+    private MediaPlayerStatus status;
+
+    private long statusTimestamp;
+
+    private long position;
+
+    private long positionTimestamp;
+
+    private boolean hasPosition;
+
+    private boolean playing;
+
+    private long duration;
+
+    private long durationTimestamp;
+
+    private boolean hasDuration;
+
+    private float volume;
+
+    private long volumeTimestamp;
+
+    private boolean hasVolume;
+
+    private boolean mute;
+
+    private long muteTimestamp;
+
+    private boolean hasMute;
+
+    /**
+     * Update state from a status push. Position is ignored if it's negative.
+     */
+    synchronized void update(MediaPlayerStatus status, long position, long timestamp) {
+        if (status == null) {
+            return;
+        }
+        updateStatus(status, timestamp);
+        if (position >= 0) {
+            updatePosition(position, timestamp);
+        }
+    }
+
+    synchronized void updateStatus(MediaPlayerStatus status, long timestamp) {
+        if (status == null) {
+            return;
+        }
+        MediaPlayerStatus.MediaState state = status.getState();
+        if (state == MediaPlayerStatus.MediaState.NoSource
+                || state == MediaPlayerStatus.MediaState.PreparingMedia) {
+            hasDuration = false;
+        }
+        if (hasPosition && playing != (state == MediaPlayerStatus.MediaState.Playing)) {
+            // freeze interpolated position at the moment when playback state has changed
+            position = getPosition(timestamp);
+            positionTimestamp = timestamp;
+        }
+        this.status = status;
+        this.statusTimestamp = timestamp;
+        this.playing = state == MediaPlayerStatus.MediaState.Playing;
+        if (status.isVolumeSet()) {
+            updateVolume((float) status.getVolume(), timestamp);
+        }
+        if (status.isMuteSet()) {
+            updateMute(status.isMute(), timestamp);
+        }
+    }
+
+    synchronized void updatePosition(long position, long timestamp) {
+        this.position = position;
+        this.positionTimestamp = timestamp;
+        this.hasPosition = true;
+    }
+
+    synchronized void updateVolume(float volume, long timestamp) {
+        this.volume = volume;
+        this.volumeTimestamp = timestamp;
+        this.hasVolume = true;
+    }
+
+    synchronized void updateMute(boolean mute, long timestamp) {
+        this.mute = mute;
+        this.muteTimestamp = timestamp;
+        this.hasMute = true;
+    }
+
+    synchronized void updateDuration(long duration, long timestamp) {
+        this.duration = duration;
+        this.durationTimestamp = timestamp;
+        this.hasDuration = true;
+    }
+
+    /**
+     * Get the last known status or null if it's unknown or older than maxAge
+     */
+    synchronized MediaPlayerStatus getStatus(long now, long maxAge) {
+        if (status != null && now - statusTimestamp < maxAge) {
+            return status;
+        }
+        return null;
+    }
+
+    synchronized boolean hasPosition(long now, long maxAge) {
+        return hasPosition && now - positionTimestamp < maxAge;
+    }
+
+    /**
+     * Get the last known position interpolated to the given moment if media is playing. An
+     * interpolated position doesn't go past the known duration.
+     */
+    synchronized long getPosition(long now) {
+        if (playing && now > positionTimestamp) {
+            long interpolated = position + (now - positionTimestamp);
+            if (hasDuration && duration > position && interpolated > duration) {
+                return duration;
+            }
+            return interpolated;
+        }
+        return position;
+    }
+
+    /**
+     * Check if the last known state is playing, so the position is advancing
+     */
+    synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    synchronized boolean hasVolume(long now, long maxAge) {
+        return hasVolume && now - volumeTimestamp < maxAge;
+    }
+
+    synchronized float getVolume() {
+        return volume;
+    }
+
+    synchronized boolean hasMute(long now, long maxAge) {
+        return hasMute && now - muteTimestamp < maxAge;
+    }
+
+    synchronized boolean isMute() {
+        return mute;
+    }
+
+    synchronized boolean hasDuration(long now, long maxAge) {
+        return hasDuration && now - durationTimestamp < maxAge;
+    }
+
+    synchronized long getDuration() {
+        return duration;
+    }
+
+    /**
+     * Drop status and position, e.g. when a command changes playback state
+     */
+    synchronized void invalidate() {
+        status = null;
+        hasPosition = false;
+    }
+
+    /**
+     * Drop all stored values of media, e.g. when media source is changed. Volume and mute
+     * don't depend on media and are kept.
+     */
+    synchronized void reset() {
+        invalidate();
+        hasDuration = false;
+        playing = false;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * FireTVPlaylist
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.MediaInfo;
+import com.connectsdk.service.capability.PlaylistControl.PlayMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Items and play order of a FireTV playlist. Items are played in the order of the list, or in a
+ * random order in Shuffle mode where each item is played once. RepeatAll mode starts over after
+ * the last item and RepeatOne mode repeats the current item when it finishes, while next and
+ * previous still move between items. A single looped item repeats regardless of play mode. All
+ * methods are thread safe.
+ */
+class FireTVPlaylist {
+
+    private final Random random;
+
+    private List<MediaInfo> items = Collections.emptyList();
+
+    /**
+     * Indexes of items in play order
+     */
+    private int[] order = new int[0];
+
+    /**
+     * Position of the current item in play order or -1 if there is no current item
+     */
+    private int position = -1;
+
+    private PlayMode playMode = PlayMode.Normal;
+
+    private boolean loopedItem;
+
+    FireTVPlaylist(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Replace items and make the item with the given index current. The index must be valid.
+     */
+    synchronized void setItems(List<MediaInfo> items, int startIndex) {
+        this.items = Collections.unmodifiableList(new ArrayList<MediaInfo>(items));
+        this.loopedItem = false;
+        updateOrder(startIndex);
+    }
+
+    /**
+     * Replace items with a single item which is played again each time it finishes
+     */
+    synchronized void setLoopedItem(MediaInfo item) {
+        this.items = Collections.singletonList(item);
+        this.loopedItem = true;
+        updateOrder(0);
+    }
+
+    synchronized void clear() {
+        loopedItem = false;
+        items = Collections.emptyList();
+        order = new int[0];
+        position = -1;
+    }
+
+    synchronized List<MediaInfo> getItems() {
+        return items;
+    }
+
+    synchronized boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Get index of the current item or -1 if there is no current item
+     */
+    synchronized int getCurrentIndex() {
+        return position >= 0 ? order[position] : -1;
+    }
+
+    /**
+     * Set play mode. Play order is rebuilt starting from the current item.
+     */
+    synchronized void setPlayMode(PlayMode playMode) {
+        this.playMode = playMode != null ? playMode : PlayMode.Normal;
+        if (position >= 0) {
+            updateOrder(order[position]);
+        }
+    }
+
+    synchronized PlayMode getPlayMode() {
+        return playMode;
+    }
+
+    /**
+     * Check if the playlist moves on by itself when the current item finishes
+     */
+    synchronized boolean advancesOnFinish() {
+        return loopedItem || items.size() > 1 || !items.isEmpty() && isRepeating();
+    }
+
+    /**
+     * Get the item which follows the current one without moving to it
+     * @param finished true if the current item has finished, false if next item is requested
+     * @return the item or null if the current item is the last one
+     */
+    synchronized MediaInfo peekNext(boolean finished) {
+        int next = getNextPosition(finished);
+        return next >= 0 ? items.get(order[next]) : null;
+    }
+
+    /**
+     * Get step to the item which follows the current one
+     * @param finished true if the current item has finished, false if next item is requested
+     * @return the step or null if the current item is the last one
+     */
+    synchronized Step getNext(boolean finished) {
+        return createStep(getNextPosition(finished));
+    }
+
+    /**
+     * Get step to the item which precedes the current one
+     * @return the step or null if the current item is the first one
+     */
+    synchronized Step getPrevious() {
+        int previous = -1;
+        if (position > 0) {
+            previous = position - 1;
+        } else if (position == 0 && isRepeating()) {
+            previous = order.length - 1;
+        }
+        return createStep(previous);
+    }
+
+    /**
+     * Get step to the item with the given index in the list
+     * @return the step or null if the index is out of range
+     */
+    synchronized Step getStep(int index) {
+        if (index < 0 || index >= items.size()) {
+            return null;
+        }
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] == index) {
+                return createStep(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Make the item of the step current. The step is ignored if items or play order have
+     * changed since it was taken.
+     * @return true if the item of the step is current
+     */
+    synchronized boolean moveTo(Step step) {
+        if (step.order != order) {
+            return false;
+        }
+        position = step.position;
+        return true;
+    }
+
+    private int getNextPosition(boolean finished) {
+        if (position < 0) {
+            return -1;
+        }
+        if (finished && (loopedItem || playMode == PlayMode.RepeatOne)) {
+            return position;
+        }
+        if (position + 1 < order.length) {
+            return position + 1;
+        }
+        return isRepeating() ? 0 : -1;
+    }
+
+    private boolean isRepeating() {
+        return playMode == PlayMode.RepeatAll || playMode == PlayMode.RepeatOne;
+    }
+
+    private Step createStep(int newPosition) {
+        return newPosition >= 0 ? new Step(items.get(order[newPosition]), order, newPosition)
+                : null;
+    }
+
+    /**
+     * Build play order which has the given item at the current position
+     */
+    private void updateOrder(int current) {
+        int size = items.size();
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (playMode == PlayMode.Shuffle) {
+            // current item goes first and the rest is shuffled after it
+            order[current] = 0;
+            order[0] = current;
+            for (int i = size - 1; i > 1; i--) {
+                int j = 1 + random.nextInt(i);
+                int swap = order[i];
+                order[i] = order[j];
+                order[j] = swap;
+            }
+            position = 0;
+        } else {
+            position = current;
+        }
+    }
+
+    /**
+     * Move to another item of the playlist. The current item doesn't change until the step is
+     * passed to moveTo, so it can be applied after the item is launched.
+     */
+    static class Step {
+
+        private final MediaInfo item;
+
+        private final int[] order;
+
+        private final int position;
+
+        Step(MediaInfo item, int[] order, int position) {
+            this.item = item;
+            this.order = order;
+            this.position = position;
+        }
+
+        MediaInfo getItem() {
+            return item;
+        }
+    }
+}
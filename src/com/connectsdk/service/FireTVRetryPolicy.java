@@ -0,0 +1,160 @@
+/*
+ * FireTVRetryPolicy
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import java.util.Random;
+
+/**
+ * Retry policy for requests which fail on FireTV device side. Only requests which can be
+ * repeated safely are retried: play state, position, duration and media info requests, absolute
+ * seek and setting media source. Delay before each retry grows exponentially and a random half
+ * of it is dropped, so that devices which failed together don't retry together. Retries of one
+ * device are limited by a budget which is refilled over time, so a failing device doesn't
+ * multiply its traffic.
+ */
+public final class FireTVRetryPolicy {
+
+    /**
+     * Policy which doesn't retry
+     */
+    public static final FireTVRetryPolicy NONE = new FireTVRetryPolicy(0, 0, 0, 0, 0);
+
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    public static final long DEFAULT_INITIAL_DELAY = 200;
+
+    public static final long DEFAULT_MAX_DELAY = 2000;
+
+    public static final int DEFAULT_BUDGET = 10;
+
+    public static final long DEFAULT_BUDGET_PERIOD = 10000;
+
+    private final int maxRetries;
+
+    private final long initialDelay;
+
+    private final long maxDelay;
+
+    private final int budget;
+
+    private final long budgetPeriod;
+
+    /**
+     * Create a policy with default delays and budget
+     */
+    public FireTVRetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_INITIAL_DELAY, DEFAULT_MAX_DELAY, DEFAULT_BUDGET,
+                DEFAULT_BUDGET_PERIOD);
+    }
+
+    /**
+     * @param maxRetries number of retries of a single request
+     * @param initialDelay upper bound of delay in milliseconds before the first retry, it's
+     *                     doubled for each next retry
+     * @param maxDelay upper bound of delay in milliseconds before any retry
+     * @param budget number of retries which a device can spend within the budget period
+     * @param budgetPeriod time in milliseconds in which a spent budget is fully refilled
+     */
+    public FireTVRetryPolicy(int maxRetries, long initialDelay, long maxDelay, int budget,
+                             long budgetPeriod) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.initialDelay = Math.max(0, initialDelay);
+        this.maxDelay = Math.max(this.initialDelay, maxDelay);
+        this.budget = Math.max(0, budget);
+        this.budgetPeriod = Math.max(0, budgetPeriod);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public int getBudget() {
+        return budget;
+    }
+
+    public long getBudgetPeriod() {
+        return budgetPeriod;
+    }
+
+    boolean isEnabled() {
+        return maxRetries > 0 && budget > 0;
+    }
+
+    /**
+     * Get delay before the given retry, which is between half and full exponential delay
+     * @param retry number of the retry starting from 0
+     */
+    long getDelay(int retry, Random random) {
+        long delay = initialDelay;
+        for (int i = 0; i < retry && delay < maxDelay; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDelay);
+        long half = delay / 2;
+        return half + (delay - half > 0 ? (long) (random.nextDouble() * (delay - half)) : 0);
+    }
+
+    /**
+     * Retry budget of a single device
+     */
+    static final class Budget {
+
+        private final FireTVRetryPolicy policy;
+
+        private double tokens;
+
+        private long refillTime;
+
+        Budget(FireTVRetryPolicy policy, long now) {
+            this.policy = policy;
+            this.tokens = policy.budget;
+            this.refillTime = now;
+        }
+
+        FireTVRetryPolicy getPolicy() {
+            return policy;
+        }
+
+        /**
+         * Take a retry from the budget
+         * @return false if the budget is spent
+         */
+        synchronized boolean tryAcquire(long now) {
+            if (policy.budgetPeriod > 0 && now > refillTime) {
+                tokens = Math.min(policy.budget,
+                        tokens + (double) policy.budget * (now - refillTime) / policy.budgetPeriod);
+            }
+            refillTime = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
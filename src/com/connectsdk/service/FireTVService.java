@@ -21,17 +21,21 @@
 package com.connectsdk.service;
 
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
 import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
 import com.amazon.whisperplay.fling.media.service.CustomMediaPlayer;
 import com.amazon.whisperplay.fling.media.service.MediaPlayerInfo;
 import com.amazon.whisperplay.fling.media.service.MediaPlayerStatus;
-import com.connectsdk.core.ImageInfo;
 import com.connectsdk.core.MediaInfo;
-import com.connectsdk.core.Util;
 import com.connectsdk.discovery.DiscoveryFilter;
 import com.connectsdk.service.capability.CapabilityMethods;
 import com.connectsdk.service.capability.MediaControl;
 import com.connectsdk.service.capability.MediaPlayer;
+import com.connectsdk.service.capability.PlaylistControl;
+import com.connectsdk.service.capability.VolumeControl;
 import com.connectsdk.service.capability.listeners.ResponseListener;
 import com.connectsdk.service.command.FireTVServiceError;
 import com.connectsdk.service.command.ServiceCommandError;
@@ -40,14 +44,23 @@ import com.connectsdk.service.config.ServiceConfig;
 import com.connectsdk.service.config.ServiceDescription;
 import com.connectsdk.service.sessions.LaunchSession;
 
-import org.json.JSONArray;
 import org.json.JSONException;
-import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * FireTVService provides capabilities for FireTV devices. FireTVService acts as a layer on top of
@@ -55,27 +68,238 @@ import java.util.concurrent.Future;
  * functionality:
  * - Media playback
  * - Media control
+ * - Volume control
+ * - Playlist control
  *
  * Using Connect SDK for discovery/control of FireTV devices will result in your app complying with
  * the Fling SDK terms of service.
  */
-public class FireTVService extends DeviceService implements MediaPlayer, MediaControl {
+public class FireTVService extends DeviceService implements MediaPlayer, MediaControl,
+        VolumeControl, PlaylistControl {
 
     public static final String ID = "FireTV";
 
-    private static final String META_TITLE = "title";
-    private static final String META_DESCRIPTION = "description";
-    private static final String META_MIME_TYPE = "type";
-    private static final String META_ICON_IMAGE = "poster";
-    private static final String META_NOREPLAY = "noreplay";
-    private static final String META_TRACKS = "tracks";
-    private static final String META_SRC = "src";
-    private static final String META_KIND = "kind";
-    private static final String META_SRCLANG = "srclang";
-    private static final String META_LABEL = "label";
+    /**
+     * Serializer is shared by all devices, so the same media launched on several devices is
+     * serialized once
+     */
+    private static final FireTVMetadataSerializer metadataSerializer =
+            new FireTVMetadataSerializer();
+
+    /**
+     * Default interval in milliseconds between position updates pushed by FireTV device while a
+     * position subscription is active
+     */
+    public static final long DEFAULT_POSITION_UPDATE_INTERVAL = 1000;
+
+    /**
+     * Number of position updates which can be missed before a pushed position is too old to be
+     * interpolated
+     */
+    static final int MAX_MISSED_POSITION_UPDATES = 3;
+
+    /**
+     * Default time in milliseconds during which play state, position and duration received from
+     * FireTV device are reused without sending a new request
+     */
+    public static final long DEFAULT_STATE_CACHE_TIMEOUT = 1000;
+
+    /**
+     * Default interval in milliseconds which is skipped by fastForward and rewind methods
+     */
+    public static final long DEFAULT_SKIP_INTERVAL = 10000;
+
+    /**
+     * Default number of playback commands which are sent to FireTV device without waiting for
+     * a response
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 1;
+
+    /**
+     * Default number of playback commands which can wait in the command queue
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
+    /**
+     * Default time in milliseconds within which each command must be answered. Zero means that
+     * commands wait for FireTV device without a deadline.
+     */
+    public static final long DEFAULT_COMMAND_TIMEOUT = 0;
+
+    /**
+     * Default volume change made by volumeUp and volumeDown methods
+     */
+    public static final float DEFAULT_VOLUME_STEP = 0.05f;
+
+    /**
+     * Default MIME types which are probed in the background when the service connects
+     */
+    public static final List<String> DEFAULT_PROBED_MIME_TYPES =
+            Collections.unmodifiableList(Arrays.asList(
+                    "video/mp4",
+                    "video/webm",
+                    "video/x-matroska",
+                    "application/x-mpegurl",
+                    "application/dash+xml",
+                    "audio/mpeg",
+                    "audio/mp4",
+                    "audio/aac",
+                    "image/jpeg",
+                    "image/png",
+                    "image/gif"));
 
     private final RemoteMediaPlayer remoteMediaPlayer;
-    private PlayStateSubscription playStateSubscription;
+    private volatile PlayStateSubscription playStateSubscription;
+    private volatile PositionSubscription positionSubscription;
+    private volatile VolumeSubscription volumeSubscription;
+    private volatile MuteSubscription muteSubscription;
+    private final Object subscriptionLock = new Object();
+
+    final FireTVPlaybackState playbackState = new FireTVPlaybackState();
+    private long positionUpdateInterval = DEFAULT_POSITION_UPDATE_INTERVAL;
+    private long stateCacheTimeout = DEFAULT_STATE_CACHE_TIMEOUT;
+    private long fastForwardInterval = DEFAULT_SKIP_INTERVAL;
+    private long rewindInterval = DEFAULT_SKIP_INTERVAL;
+
+    private final Map<SharedRequest, Completion<?, ?>> sharedCalls =
+            new EnumMap<SharedRequest, Completion<?, ?>>(SharedRequest.class);
+
+    final CommandQueue commandQueue = new CommandQueue();
+
+    private final Random random = new Random();
+
+    final VolumeQueue volumeQueue = new VolumeQueue();
+
+    private volatile float volumeStep = DEFAULT_VOLUME_STEP;
+
+    final FireTVMimeTypeCache mimeTypeCache = new FireTVMimeTypeCache();
+
+    private volatile List<String> probedMimeTypes = DEFAULT_PROBED_MIME_TYPES;
+
+    private volatile boolean unsupportedMediaRejected;
+
+    final FireTVPlaylist playlist = new FireTVPlaylist(random);
+
+    private final PlaylistStatusListener playlistStatusListener = new PlaylistStatusListener();
+
+    private volatile Executor callbackExecutor = FireTVCallbackExecutors.mainThread();
+
+    private volatile long commandTimeout = DEFAULT_COMMAND_TIMEOUT;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private volatile FireTVRetryPolicy.Budget retryBudget =
+            new FireTVRetryPolicy.Budget(FireTVRetryPolicy.NONE, 0);
+
+    private final FireTVCircuitBreaker circuitBreaker = new FireTVCircuitBreaker(
+            new FireTVCircuitBreaker.Prober() {
+                @Override
+                public void probe() {
+                    sendProbe();
+                }
+            });
+
+    private final Retrier retrier = new Retrier() {
+        @Override
+        public long getRetryDelay(int retry) {
+            FireTVRetryPolicy.Budget budget = retryBudget;
+            FireTVRetryPolicy policy = budget.getPolicy();
+            if (!policy.isEnabled() || retry >= policy.getMaxRetries()
+                    || circuitBreaker.getState() != FireTVCircuitBreaker.State.CLOSED
+                    || !budget.tryAcquire(SystemClock.elapsedRealtime())) {
+                return -1;
+            }
+            return policy.getDelay(retry, random);
+        }
+
+        @Override
+        public void schedule(Runnable runnable, long delay) {
+            handler.postDelayed(runnable, delay);
+        }
+    };
+
+    private final FireTVMediaInfoCache mediaInfoCache = new FireTVMediaInfoCache();
+
+    private final ConvertResult<MediaInfo, MediaPlayerInfo> mediaInfoConverter =
+            new ConvertResult<MediaInfo, MediaPlayerInfo>() {
+                @Override
+                public MediaInfo convert(MediaPlayerInfo data) throws JSONException {
+                    return mediaInfoCache.get(data.getSource(), data.getMetadata());
+                }
+            };
+
+    private final ConvertResult<Long, Long> durationConverter = new ConvertResult<Long, Long>() {
+        @Override
+        public Long convert(Long data) {
+            if (data != null) {
+                playbackState.updateDuration(data, SystemClock.elapsedRealtime());
+            }
+            return data;
+        }
+    };
+
+    private final ConvertResult<Long, Long> positionConverter = new ConvertResult<Long, Long>() {
+        @Override
+        public Long convert(Long data) {
+            if (data != null) {
+                playbackState.updatePosition(data, SystemClock.elapsedRealtime());
+            }
+            return data;
+        }
+    };
+
+    private final ConvertResult<PlayStateStatus, MediaPlayerStatus> playStateConverter =
+            new ConvertResult<PlayStateStatus, MediaPlayerStatus>() {
+                @Override
+                public PlayStateStatus convert(MediaPlayerStatus data) {
+                    playbackState.updateStatus(data, SystemClock.elapsedRealtime());
+                    return createPlayStateStatusFromFireTVStatus(data);
+                }
+            };
+
+    private final ConvertResult<Float, Double> volumeConverter =
+            new ConvertResult<Float, Double>() {
+                @Override
+                public Float convert(Double data) {
+                    if (data == null) {
+                        return null;
+                    }
+                    float volume = data.floatValue();
+                    playbackState.updateVolume(volume, SystemClock.elapsedRealtime());
+                    return volume;
+                }
+            };
+
+    private final ConvertResult<Boolean, Boolean> muteConverter =
+            new ConvertResult<Boolean, Boolean>() {
+                @Override
+                public Boolean convert(Boolean data) {
+                    if (data != null) {
+                        playbackState.updateMute(data, SystemClock.elapsedRealtime());
+                    }
+                    return data;
+                }
+            };
+
+    private final ConvertResult<MediaLaunchObject, Void> launchConverter =
+            new ConvertResult<MediaLaunchObject, Void>() {
+                @Override
+                public MediaLaunchObject convert(Void data) {
+                    return createMediaLaunchObject(null);
+                }
+            };
+
+    private final ConvertResult<MediaLaunchObject, Void> playlistLaunchConverter =
+            new ConvertResult<MediaLaunchObject, Void>() {
+                @Override
+                public MediaLaunchObject convert(Void data) {
+                    return createMediaLaunchObject(FireTVService.this);
+                }
+            };
+
+    private final MuteChange muteChange = new MuteChange(true);
+
+    private final MuteChange unmuteChange = new MuteChange(false);
 
     public FireTVService(ServiceDescription serviceDescription, ServiceConfig serviceConfig) {
         super(serviceDescription, serviceConfig);
@@ -104,6 +328,7 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
         if (remoteMediaPlayer != null) {
             connected = true;
             reportConnected(connected);
+            probeMimeTypes(probedMimeTypes);
         }
     }
 
@@ -124,7 +349,7 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
     }
 
     /**
-     * Disconnect a service and close all subscriptions
+     * Disconnect a service, close all subscriptions and stop the playlist
      */
     @Override
     public void disconnect() {
@@ -133,6 +358,20 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
             playStateSubscription.unsubscribe();
             playStateSubscription = null;
         }
+        if (positionSubscription != null) {
+            positionSubscription.unsubscribe();
+            positionSubscription = null;
+        }
+        if (volumeSubscription != null) {
+            volumeSubscription.unsubscribe();
+            volumeSubscription = null;
+        }
+        if (muteSubscription != null) {
+            muteSubscription.unsubscribe();
+            muteSubscription = null;
+        }
+        stopPlaylist();
+        playbackState.reset();
         connected = false;
     }
 
@@ -153,11 +392,26 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
         capabilities.add(MediaControl.Pause);
         capabilities.add(MediaControl.Stop);
         capabilities.add(MediaControl.Seek);
+        capabilities.add(MediaControl.Rewind);
+        capabilities.add(MediaControl.FastForward);
         capabilities.add(MediaControl.Duration);
         capabilities.add(MediaControl.Position);
         capabilities.add(MediaControl.PlayState);
         capabilities.add(MediaControl.PlayState_Subscribe);
 
+        capabilities.add(VolumeControl.Volume_Get);
+        capabilities.add(VolumeControl.Volume_Set);
+        capabilities.add(VolumeControl.Volume_Up_Down);
+        capabilities.add(VolumeControl.Volume_Subscribe);
+        capabilities.add(VolumeControl.Mute_Get);
+        capabilities.add(VolumeControl.Mute_Set);
+        capabilities.add(VolumeControl.Mute_Subscribe);
+
+        capabilities.add(PlaylistControl.Previous);
+        capabilities.add(PlaylistControl.Next);
+        capabilities.add(PlaylistControl.JumpToTrack);
+        capabilities.add(PlaylistControl.SetPlayMode);
+
         setCapabilities(capabilities);
     }
 
@@ -171,6 +425,10 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
                 return getMediaPlayerCapabilityLevel();
             } else if (clazz.equals(MediaControl.class)) {
                 return getMediaControlCapabilityLevel();
+            } else if (clazz.equals(VolumeControl.class)) {
+                return getVolumeControlCapabilityLevel();
+            } else if (clazz.equals(PlaylistControl.class)) {
+                return getPlaylistControlCapabilityLevel();
             }
         }
         return CapabilityPriorityLevel.NOT_SUPPORTED;
@@ -199,31 +457,12 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      */
     @Override
     public void getMediaInfo(final MediaInfoListener listener) {
-        final String error = "Error getting media info";
-        RemoteMediaPlayer.AsyncFuture<MediaPlayerInfo> asyncFuture = null;
-        try {
-            asyncFuture = remoteMediaPlayer.getMediaInfo();
-            handleAsyncFutureWithConversion(listener, asyncFuture,
-                    new ConvertResult<MediaInfo, MediaPlayerInfo>() {
-                @Override
-                public MediaInfo convert(MediaPlayerInfo data) throws JSONException {
-                    JSONObject metaJson = null;
-                    metaJson = new JSONObject(data.getMetadata());
-                    List<ImageInfo> images = null;
-                    if (metaJson.has(META_ICON_IMAGE)) {
-                        images = new ArrayList<ImageInfo>();
-                        images.add(new ImageInfo(metaJson.getString(META_ICON_IMAGE)));
-                    }
-                    MediaInfo mediaInfo = new MediaInfo(data.getSource(),
-                            metaJson.getString(META_MIME_TYPE), metaJson.getString(META_TITLE),
-                            metaJson.getString(META_DESCRIPTION), images);
-                    return mediaInfo;
-                }
-            }, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error));
-            return;
-        }
+        readMediaInfo(track(listener));
+    }
+
+    private void readMediaInfo(ResponseListener<MediaInfo> listener) {
+        handleSharedAsyncFuture(SharedRequest.MEDIA_INFO, listener, mediaInfoConverter,
+                "Error getting media info");
     }
 
     /**
@@ -231,7 +470,7 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      */
     @Override
     public ServiceSubscription<MediaInfoListener> subscribeMediaInfo(MediaInfoListener listener) {
-        Util.postError(listener, ServiceCommandError.notSupported());
+        postError(listener, ServiceCommandError.notSupported());
         return null;
     }
 
@@ -247,11 +486,12 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
     @Override
     public void displayImage(String url, String mimeType, String title, String description,
                              String iconSrc, final LaunchListener listener) {
+        stopPlaylist();
         setMediaSource(new MediaInfo.Builder(url, mimeType)
                 .setTitle(title)
                 .setDescription(description)
                 .setIcon(iconSrc)
-                .build(), listener);
+                .build(), track(listener));
     }
 
     /**
@@ -261,21 +501,22 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      * @param title
      * @param description
      * @param iconSrc
-     * @param shouldLoop skipped in current implementation
+     * @param shouldLoop play the media again when it finishes
      * @param listener
      */
     @Override
     public void playMedia(String url, String mimeType, String title, String description,
                           String iconSrc, boolean shouldLoop, LaunchListener listener) {
-        setMediaSource(new MediaInfo.Builder(url, mimeType)
+        playMedia(new MediaInfo.Builder(url, mimeType)
                 .setTitle(title)
                 .setDescription(description)
                 .setIcon(iconSrc)
-                .build(), listener);
+                .build(), shouldLoop, listener);
     }
 
     /**
-     * Stop and close media player on FireTV. In current implementation it's similar to stop method
+     * Stop and close media player on FireTV. In current implementation it's similar to stop method,
+     * which also stops the current playlist
      * @param launchSession
      * @param listener
      */
@@ -291,18 +532,65 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      */
     @Override
     public void displayImage(MediaInfo mediaInfo, LaunchListener listener) {
-        setMediaSource(mediaInfo, listener);
+        stopPlaylist();
+        setMediaSource(mediaInfo, track(listener));
     }
 
     /**
-     * Play audio/video
+     * Play audio/video. It replaces the current playlist.
      * @param mediaInfo
-     * @param shouldLoop skipped in current implementation
+     * @param shouldLoop play the media again when it finishes
      * @param listener
      */
     @Override
     public void playMedia(MediaInfo mediaInfo, boolean shouldLoop, LaunchListener listener) {
-        setMediaSource(mediaInfo, listener);
+        if (shouldLoop && mediaInfo != null) {
+            playlist.setLoopedItem(mediaInfo);
+            playlistStatusListener.setActive(true);
+        } else {
+            stopPlaylist();
+        }
+        setMediaSource(mediaInfo, track(listener));
+    }
+
+    /**
+     * Play a list of media items starting from the given one. When an item finishes the next
+     * one is played right away according to the play mode, and metadata of the next item is
+     * prepared in advance. Launch object of the started item contains playlist control.
+     * @param items media items
+     * @param startIndex index of the first item to play
+     * @param listener
+     */
+    public void playPlaylist(List<MediaInfo> items, int startIndex, LaunchListener listener) {
+        ResponseListener<MediaLaunchObject> trackedListener = track(listener);
+        if (items == null || startIndex < 0 || startIndex >= items.size()) {
+            postError(trackedListener, new FireTVServiceError("Invalid playlist"));
+            return;
+        }
+        playlist.setItems(items, startIndex);
+        playlistStatusListener.setActive(playlist.advancesOnFinish());
+        playItem(items.get(startIndex), trackedListener);
+    }
+
+    /**
+     * Get items of the current playlist. It's empty if no playlist is played.
+     */
+    public List<MediaInfo> getPlaylist() {
+        return playlist.getItems();
+    }
+
+    /**
+     * Get index of the current item in the playlist or -1 if no playlist is played
+     */
+    public int getPlaylistIndex() {
+        return playlist.getCurrentIndex();
+    }
+
+    /**
+     * Get play mode of the playlist, which is Normal unless it was set by setPlayMode
+     */
+    public PlayMode getPlayMode() {
+        return playlist.getPlayMode();
     }
 
     /**
@@ -326,14 +614,7 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      */
     @Override
     public void play(ResponseListener<Object> listener) {
-        final String error = "Error playing";
-        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
-        try {
-            asyncFuture = remoteMediaPlayer.play();
-            handleVoidAsyncFuture(listener, asyncFuture, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
-        }
+        commandQueue.enqueue(new Command(CommandType.PLAY, track(listener)));
     }
 
     /**
@@ -341,133 +622,301 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
      */
     @Override
     public void pause(ResponseListener<Object> listener) {
-        final String error = "Error pausing";
-        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
-        try {
-            asyncFuture = remoteMediaPlayer.pause();
-            handleVoidAsyncFuture(listener, asyncFuture, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
-        }
+        commandQueue.enqueue(new Command(CommandType.PAUSE, track(listener)));
     }
 
     /**
-     * Stop current media and close FireTV application.
+     * Stop current media and close FireTV application. It also stops the current playlist, so
+     * it doesn't move on by itself.
      */
     @Override
     public void stop(ResponseListener<Object> listener) {
-        final String error = "Error stopping";
-        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
-        try {
-            asyncFuture = remoteMediaPlayer.stop();
-            handleVoidAsyncFuture(listener, asyncFuture, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
-        }
+        stopPlaylist();
+        commandQueue.enqueue(new Command(CommandType.STOP, track(listener)));
     }
 
     /**
-     * Not supported
+     * Skip backward by rewind interval. Rapid calls are added together into a single seek.
      */
     @Override
     public void rewind(ResponseListener<Object> listener) {
-        Util.postError(listener, ServiceCommandError.notSupported());
+        seekRelative(-rewindInterval, listener);
     }
 
     /**
-     * Not supported
+     * Skip forward by fast forward interval. Rapid calls are added together into a single seek.
      */
     @Override
     public void fastForward(ResponseListener<Object> listener) {
-        Util.postError(listener, ServiceCommandError.notSupported());
+        seekRelative(fastForwardInterval, listener);
     }
 
     /**
-     * Not supported
+     * Play the previous item of the playlist. Not supported if no playlist is played.
      */
     @Override
     public void previous(ResponseListener<Object> listener) {
-        Util.postError(listener, ServiceCommandError.notSupported());
+        if (playlist.isEmpty()) {
+            postError(listener, ServiceCommandError.notSupported());
+            return;
+        }
+        playPlaylistItem(playlist.getPrevious(), "No previous item", listener);
     }
 
     /**
-     * Not supported
+     * Play the next item of the playlist. Not supported if no playlist is played.
      */
     @Override
     public void next(ResponseListener<Object> listener) {
-        Util.postError(listener, ServiceCommandError.notSupported());
+        if (playlist.isEmpty()) {
+            postError(listener, ServiceCommandError.notSupported());
+            return;
+        }
+        playPlaylistItem(playlist.getNext(false), "No next item", listener);
+    }
+
+    /**
+     * Get PlaylistControl capability. It should be used only during playback of a playlist.
+     */
+    @Override
+    public PlaylistControl getPlaylistControl() {
+        return this;
+    }
+
+    /**
+     * Get PlaylistControl priority level
+     */
+    @Override
+    public CapabilityPriorityLevel getPlaylistControlCapabilityLevel() {
+        return CapabilityPriorityLevel.HIGH;
+    }
+
+    /**
+     * Play the item of the playlist with the given index
+     */
+    @Override
+    public void jumpToTrack(long index, ResponseListener<Object> listener) {
+        if (playlist.isEmpty()) {
+            postError(listener, ServiceCommandError.notSupported());
+            return;
+        }
+        FireTVPlaylist.Step step = index >= 0 && index <= Integer.MAX_VALUE
+                ? playlist.getStep((int) index) : null;
+        playPlaylistItem(step, "Invalid playlist index", listener);
+    }
+
+    /**
+     * Set play mode of the playlist. It's kept when a new playlist is played.
+     */
+    @Override
+    public void setPlayMode(PlayMode playMode, ResponseListener<Object> listener) {
+        playlist.setPlayMode(playMode);
+        if (!playlist.isEmpty()) {
+            playlistStatusListener.setActive(playlist.advancesOnFinish());
+            preloadNextItem();
+        }
+        postSuccess(listener, null);
     }
 
     /**
-     * Seek current media.
+     * Seek current media. Seek is sent through the command queue, so if it's requested while
+     * another command is in progress it waits for completion of the current one, and it's
+     * replaced by any newer seek. Listener of a replaced seek receives FireTVServiceError with
+     * FireTVServiceError.SUPERSEDED code.
      * @param position time in milliseconds
      * @param listener
      */
     @Override
     public void seek(long position, ResponseListener<Object> listener) {
-        final String error = "Error seeking";
-        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
-        try {
-            asyncFuture = remoteMediaPlayer.seek(CustomMediaPlayer.PlayerSeekMode.Absolute,
-                    position);
-            handleVoidAsyncFuture(listener, asyncFuture, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
-        }
+        commandQueue.enqueue(new Command(CustomMediaPlayer.PlayerSeekMode.Absolute, position,
+                track(listener)));
+    }
+
+    /**
+     * Seek current media relative to the current position. Relative seeks requested while
+     * another seek is in progress are added together and sent as a single seek.
+     * @param offset time in milliseconds, negative value seeks backward
+     * @param listener
+     */
+    public void seekRelative(long offset, ResponseListener<Object> listener) {
+        commandQueue.enqueue(new Command(CustomMediaPlayer.PlayerSeekMode.Relative, offset,
+                track(listener)));
+    }
+
+    /**
+     * Set an interval in milliseconds which is skipped forward by fastForward method
+     */
+    public void setFastForwardInterval(long interval) {
+        this.fastForwardInterval = interval;
+    }
+
+    public long getFastForwardInterval() {
+        return fastForwardInterval;
+    }
+
+    /**
+     * Set an interval in milliseconds which is skipped backward by rewind method
+     */
+    public void setRewindInterval(long interval) {
+        this.rewindInterval = interval;
+    }
+
+    public long getRewindInterval() {
+        return rewindInterval;
     }
 
     /**
-     * Get current media duration.
+     * Set executor which delivers results and subscription updates to listeners. Null value
+     * restores default delivery on the main thread.
+     *
+     * @see FireTVCallbackExecutors
+     */
+    public void setCallbackExecutor(Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor != null
+                ? callbackExecutor : FireTVCallbackExecutors.mainThread();
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    /**
+     * Get queue of playback commands which allows to tune its depth and to read its metrics
+     */
+    public CommandQueue getCommandQueue() {
+        return commandQueue;
+    }
+
+    /**
+     * Set time in milliseconds within which every command must be answered by device, otherwise
+     * its listener receives FireTVServiceError with TIMEOUT code. Zero disables the deadline.
+     */
+    public void setCommandTimeout(long timeout) {
+        this.commandTimeout = Math.max(0, timeout);
+    }
+
+    public long getCommandTimeout() {
+        return commandTimeout;
+    }
+
+    /**
+     * Set policy for retrying requests which fail on device side. Retries are invisible to
+     * listeners, which receive an error only when the policy gives up. Null value disables
+     * retries.
+     *
+     * @see FireTVRetryPolicy
+     */
+    public void setRetryPolicy(FireTVRetryPolicy retryPolicy) {
+        this.retryBudget = new FireTVRetryPolicy.Budget(
+                retryPolicy != null ? retryPolicy : FireTVRetryPolicy.NONE,
+                SystemClock.elapsedRealtime());
+    }
+
+    public FireTVRetryPolicy getRetryPolicy() {
+        return retryBudget.getPolicy();
+    }
+
+    /**
+     * Get circuit breaker of this device. It's disabled until a failure threshold is set.
+     */
+    public FireTVCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Get commands which must complete within the given time from now and which return handles
+     * for cancellation. Service command timeout still applies if it's shorter.
+     * @param timeout time in milliseconds, zero or negative value means no deadline
+     */
+    public TimedCommands withTimeout(long timeout) {
+        return new TimedCommands(timeout > 0
+                ? SystemClock.elapsedRealtime() + timeout : Long.MAX_VALUE);
+    }
+
+    /**
+     * Get commands which must complete before the given moment and which return handles for
+     * cancellation. Commands requested after the deadline fail without being sent.
+     * @param deadline time in milliseconds in SystemClock.elapsedRealtime() base
+     */
+    public TimedCommands withDeadline(long deadline) {
+        return new TimedCommands(deadline);
+    }
+
+    /**
+     * Get current media duration. A cached value is returned if it's fresh enough.
      */
     @Override
     public void getDuration(final DurationListener listener) {
-        final String error = "Error getting duration";
-        RemoteMediaPlayer.AsyncFuture<Long> asyncFuture;
-        try {
-            asyncFuture = remoteMediaPlayer.getDuration();
-            handleAsyncFuture(listener, asyncFuture, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
+        readDuration(track(listener));
+    }
+
+    private void readDuration(ResponseListener<Long> listener) {
+        if (playbackState.hasDuration(SystemClock.elapsedRealtime(), getStateMaxAge())) {
+            postSuccess(listener, playbackState.getDuration());
             return;
         }
+        handleSharedAsyncFuture(SharedRequest.DURATION, listener, durationConverter,
+                "Error getting duration");
     }
 
     /**
-     * Get playback position
+     * Get playback position. A cached value is interpolated locally if it's fresh enough. While
+     * a position subscription is active the position pushed by device is used until a few
+     * updates in a row are missed, and then it's requested from the device again.
      */
     @Override
     public void getPosition(final PositionListener listener) {
+        readPosition(track(listener));
+    }
+
+    private void readPosition(ResponseListener<Long> listener) {
+        long now = SystemClock.elapsedRealtime();
+        if (playbackState.hasPosition(now, getPositionMaxAge())) {
+            postSuccess(listener, playbackState.getPosition(now));
+            return;
+        }
+        handleSharedAsyncFuture(SharedRequest.POSITION, listener, positionConverter,
+                "Error getting position");
+    }
+
+    /**
+     * Request position from device bypassing the local state. The request isn't shared with
+     * other callers and isn't retried, so it can be used to measure round-trip time.
+     */
+    void requestPosition(ResponseListener<Long> listener) {
         final String error = "Error getting position";
         RemoteMediaPlayer.AsyncFuture<Long> asyncFuture;
+        if (!circuitBreaker.allowRequest()) {
+            postError(listener, createCircuitOpenError());
+            return;
+        }
         try {
             asyncFuture = remoteMediaPlayer.getPosition();
-            handleAsyncFuture(listener, asyncFuture, error);
         } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
+            postError(listener, new FireTVServiceError(error, e));
             return;
         }
+        handleAsyncFutureWithConversion(listener, asyncFuture, positionConverter, error, null);
     }
 
     /**
-     * Get playback state
+     * Get playback state. A cached value is returned if it's fresh enough or if it's kept up to
+     * date by status subscription.
      */
     @Override
     public void getPlayState(final PlayStateListener listener) {
-        final String error = "Error getting play state";
-        RemoteMediaPlayer.AsyncFuture<MediaPlayerStatus> asyncFuture;
-        try {
-            asyncFuture = remoteMediaPlayer.getStatus();
-            handleAsyncFutureWithConversion(listener, asyncFuture,
-                    new ConvertResult<PlayStateStatus, MediaPlayerStatus>() {
-                        @Override
-                        public PlayStateStatus convert(MediaPlayerStatus data) {
-                            return createPlayStateStatusFromFireTVStatus(data);
-                        }
-                    }, error);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
+        readPlayState(track(listener));
+    }
+
+    private void readPlayState(ResponseListener<PlayStateStatus> listener) {
+        MediaPlayerStatus cachedStatus = playbackState.getStatus(SystemClock.elapsedRealtime(),
+                getStateMaxAge());
+        if (cachedStatus != null) {
+            postSuccess(listener, createPlayStateStatusFromFireTVStatus(cachedStatus));
             return;
         }
+        handleSharedAsyncFuture(SharedRequest.STATUS, listener, playStateConverter,
+                "Error getting play state");
     }
 
     /**
@@ -477,20 +926,388 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
     @Override
     public ServiceSubscription<PlayStateListener> subscribePlayState(
             final PlayStateListener listener) {
-
-        if (playStateSubscription == null) {
-            playStateSubscription = new PlayStateSubscription(listener);
-            remoteMediaPlayer.addStatusListener(playStateSubscription);
-        } else if (!playStateSubscription.getListeners().contains(listener)) {
-            playStateSubscription.addListener(listener);
+        if (remoteMediaPlayer == null) {
+            postError(listener, createNoPlayerError());
+            return null;
+        }
+        PlayStateSubscription subscription = playStateSubscription;
+        if (subscription == null) {
+            synchronized (subscriptionLock) {
+                subscription = playStateSubscription;
+                if (subscription == null) {
+                    subscription = new PlayStateSubscription(listener);
+                    remoteMediaPlayer.addStatusListener(subscription);
+                    playStateSubscription = subscription;
+                }
+            }
         }
+        subscription.addListener(listener);
         getPlayState(listener);
-        return playStateSubscription;
+        return subscription;
     }
 
-    PlayStateStatus createPlayStateStatusFromFireTVStatus(MediaPlayerStatus status) {
-        PlayStateStatus playState = PlayStateStatus.Unknown;
-        if (status != null) {
+    /**
+     * Subscribe to playback position. FireTV device pushes position with the configured update
+     * interval, and getPosition is answered locally by interpolating between these updates. Only
+     * single instance of subscription is available. Each new call returns the same subscription
+     * object.
+     */
+    public ServiceSubscription<PositionListener> subscribePosition(
+            final PositionListener listener) {
+        return subscribePosition(listener, false);
+    }
+
+    /**
+     * Subscribe to position updates
+     * @param internal true if the subscription is used by the SDK itself, so it doesn't change
+     *                 how long cached state is reused by requests
+     */
+    ServiceSubscription<PositionListener> subscribePosition(final PositionListener listener,
+                                                            boolean internal) {
+        if (remoteMediaPlayer == null) {
+            postError(listener, createNoPlayerError());
+            return null;
+        }
+        PositionSubscription subscription = positionSubscription;
+        if (subscription == null) {
+            synchronized (subscriptionLock) {
+                subscription = positionSubscription;
+                if (subscription == null) {
+                    subscription = new PositionSubscription(listener);
+                    remoteMediaPlayer.addStatusListener(subscription);
+                    updatePositionInterval(positionUpdateInterval);
+                    positionSubscription = subscription;
+                }
+            }
+        }
+        subscription.addListener(listener, internal);
+        long now = SystemClock.elapsedRealtime();
+        if (listener != null && playbackState.hasPosition(now, stateCacheTimeout)) {
+            postSuccess(listener, playbackState.getPosition(now));
+        }
+        return subscription;
+    }
+
+    /**
+     * Set an interval in milliseconds between position updates pushed by FireTV device. It's
+     * applied immediately if a position subscription is active.
+     */
+    public void setPositionUpdateInterval(long interval) {
+        this.positionUpdateInterval = interval;
+        if (positionSubscription != null) {
+            updatePositionInterval(interval);
+        }
+    }
+
+    public long getPositionUpdateInterval() {
+        return positionUpdateInterval;
+    }
+
+    /**
+     * Set time in milliseconds during which play state, position and duration are reused without
+     * sending a new request. Zero disables caching of values which are not kept up to date by a
+     * subscription.
+     */
+    public void setStateCacheTimeout(long timeout) {
+        this.stateCacheTimeout = timeout;
+    }
+
+    public long getStateCacheTimeout() {
+        return stateCacheTimeout;
+    }
+
+    /**
+     * Check if device can play media of the given MIME type. The answer is taken from the types
+     * probed when the service connected, so it's returned without a request to device. A type
+     * which wasn't probed yet is probed in the background.
+     * @return true if device reported the type as supported, false if it's unsupported or not
+     * known yet
+     */
+    public boolean canPlay(String mimeType) {
+        Boolean supported = mimeTypeCache.isSupported(mimeType);
+        if (supported == null) {
+            if (connected && mimeType != null) {
+                probeMimeTypes(Collections.singletonList(mimeType));
+            }
+            return false;
+        }
+        return supported;
+    }
+
+    /**
+     * Set MIME types which are probed in the background when the service connects. Types which
+     * are already known are not probed again. Null value disables probing.
+     */
+    public void setProbedMimeTypes(List<String> mimeTypes) {
+        this.probedMimeTypes = mimeTypes != null
+                ? Collections.unmodifiableList(new ArrayList<String>(mimeTypes))
+                : Collections.<String>emptyList();
+    }
+
+    public List<String> getProbedMimeTypes() {
+        return probedMimeTypes;
+    }
+
+    /**
+     * Set if media of a type which device reported as unsupported is rejected without a request
+     * to device. Listener of such launch receives FireTVServiceError with UNSUPPORTED_MIME_TYPE
+     * code. Media of a type which is not known yet is always sent. Disabled by default.
+     */
+    public void setUnsupportedMediaRejected(boolean rejected) {
+        this.unsupportedMediaRejected = rejected;
+    }
+
+    public boolean isUnsupportedMediaRejected() {
+        return unsupportedMediaRejected;
+    }
+
+    /**
+     * Ask device about each type which is not known yet. All requests are sent at once and
+     * their answers are stored in the cache as they come. A type which gets no answer stays
+     * unknown.
+     */
+    private void probeMimeTypes(List<String> mimeTypes) {
+        for (final String mimeType : mimeTypes) {
+            if (!mimeTypeCache.startProbe(mimeType)) {
+                continue;
+            }
+            RemoteMediaPlayer.AsyncFuture<Boolean> asyncFuture;
+            try {
+                asyncFuture = remoteMediaPlayer.isMimeTypeSupported(mimeType);
+            } catch (Exception e) {
+                asyncFuture = null;
+            }
+            if (asyncFuture == null) {
+                mimeTypeCache.cancelProbe(mimeType);
+                continue;
+            }
+            asyncFuture.getAsync(new RemoteMediaPlayer.FutureListener<Boolean>() {
+                @Override
+                public void futureIsNow(Future<Boolean> future) {
+                    try {
+                        Boolean supported = future.get();
+                        if (supported != null) {
+                            mimeTypeCache.put(mimeType, supported);
+                            return;
+                        }
+                    } catch (Exception e) {
+                        // the type stays unknown
+                    }
+                    mimeTypeCache.cancelProbe(mimeType);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get VolumeControl implementation
+     */
+    @Override
+    public VolumeControl getVolumeControl() {
+        return this;
+    }
+
+    /**
+     * Get VolumeControl priority level
+     */
+    @Override
+    public CapabilityPriorityLevel getVolumeControlCapabilityLevel() {
+        return CapabilityPriorityLevel.HIGH;
+    }
+
+    /**
+     * Raise volume by volume step. Steps requested while a volume change is in progress are
+     * added together and sent as a single volume change.
+     */
+    @Override
+    public void volumeUp(ResponseListener<Object> listener) {
+        volumeQueue.enqueue(null, volumeStep, track(listener));
+    }
+
+    /**
+     * Lower volume by volume step. Steps requested while a volume change is in progress are
+     * added together and sent as a single volume change.
+     */
+    @Override
+    public void volumeDown(ResponseListener<Object> listener) {
+        volumeQueue.enqueue(null, -volumeStep, track(listener));
+    }
+
+    /**
+     * Set volume. If it's requested while a volume change is in progress it replaces all
+     * waiting changes.
+     * @param volume value from 0.0 to 1.0
+     * @param listener
+     */
+    @Override
+    public void setVolume(float volume, ResponseListener<Object> listener) {
+        volumeQueue.enqueue(volume, 0, track(listener));
+    }
+
+    /**
+     * Get volume. A cached value is returned if it's fresh enough or if it's kept up to date by
+     * a status subscription.
+     */
+    @Override
+    public void getVolume(VolumeListener listener) {
+        readVolume(track(listener));
+    }
+
+    private void readVolume(ResponseListener<Float> listener) {
+        if (playbackState.hasVolume(SystemClock.elapsedRealtime(), getStateMaxAge())) {
+            postSuccess(listener, playbackState.getVolume());
+            return;
+        }
+        handleSharedAsyncFuture(SharedRequest.VOLUME, listener, volumeConverter,
+                "Error getting volume");
+    }
+
+    /**
+     * Mute or unmute device
+     */
+    @Override
+    public void setMute(boolean isMute, ResponseListener<Object> listener) {
+        final String error = "Error setting mute";
+        MuteChange change = isMute ? muteChange : unmuteChange;
+        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture;
+        listener = track(listener);
+        if (!circuitBreaker.allowRequest()) {
+            postError(listener, createCircuitOpenError());
+            return;
+        }
+        try {
+            asyncFuture = change.send();
+        } catch (Exception e) {
+            postError(listener, new FireTVServiceError(error, e));
+            return;
+        }
+        handleAsyncFutureWithConversion(listener, asyncFuture, change, error, change);
+    }
+
+    /**
+     * Get mute state. A cached value is returned if it's fresh enough or if it's kept up to date
+     * by a status subscription.
+     */
+    @Override
+    public void getMute(MuteListener listener) {
+        readMute(track(listener));
+    }
+
+    private void readMute(ResponseListener<Boolean> listener) {
+        if (playbackState.hasMute(SystemClock.elapsedRealtime(), getStateMaxAge())) {
+            postSuccess(listener, playbackState.isMute());
+            return;
+        }
+        handleSharedAsyncFuture(SharedRequest.MUTE, listener, muteConverter,
+                "Error getting mute");
+    }
+
+    /**
+     * Subscribe to volume. Volume is pushed by FireTV device with status updates. Only single
+     * instance of subscription is available. Each new call returns the same subscription object.
+     */
+    @Override
+    public ServiceSubscription<VolumeListener> subscribeVolume(VolumeListener listener) {
+        if (remoteMediaPlayer == null) {
+            postError(listener, createNoPlayerError());
+            return null;
+        }
+        VolumeSubscription subscription = volumeSubscription;
+        if (subscription == null) {
+            synchronized (subscriptionLock) {
+                subscription = volumeSubscription;
+                if (subscription == null) {
+                    subscription = new VolumeSubscription(listener);
+                    remoteMediaPlayer.addStatusListener(subscription);
+                    volumeSubscription = subscription;
+                }
+            }
+        }
+        subscription.addListener(listener);
+        getVolume(listener);
+        return subscription;
+    }
+
+    /**
+     * Subscribe to mute state. Mute state is pushed by FireTV device with status updates. Only
+     * single instance of subscription is available. Each new call returns the same subscription
+     * object.
+     */
+    @Override
+    public ServiceSubscription<MuteListener> subscribeMute(MuteListener listener) {
+        if (remoteMediaPlayer == null) {
+            postError(listener, createNoPlayerError());
+            return null;
+        }
+        MuteSubscription subscription = muteSubscription;
+        if (subscription == null) {
+            synchronized (subscriptionLock) {
+                subscription = muteSubscription;
+                if (subscription == null) {
+                    subscription = new MuteSubscription(listener);
+                    remoteMediaPlayer.addStatusListener(subscription);
+                    muteSubscription = subscription;
+                }
+            }
+        }
+        subscription.addListener(listener);
+        getMute(listener);
+        return subscription;
+    }
+
+    /**
+     * Set volume change made by volumeUp and volumeDown methods
+     * @param step value from 0.0 to 1.0
+     */
+    public void setVolumeStep(float step) {
+        this.volumeStep = Math.max(0, Math.min(1, step));
+    }
+
+    public float getVolumeStep() {
+        return volumeStep;
+    }
+
+    /**
+     * Status pushes keep state up to date while any status subscription of the application is
+     * active, so it doesn't get stale. Subscriptions which are used only by the SDK itself don't
+     * change the cache policy.
+     */
+    private long getStateMaxAge() {
+        if (isPublic(playStateSubscription) || isPublic(positionSubscription)
+                || isPublic(volumeSubscription) || isPublic(muteSubscription)) {
+            return Long.MAX_VALUE;
+        }
+        return stateCacheTimeout;
+    }
+
+    /**
+     * Position pushes keep position up to date while a position subscription of the application
+     * is active, but interpolation is limited to a few update intervals, so a position isn't
+     * extrapolated forever when pushes stop coming
+     */
+    private long getPositionMaxAge() {
+        if (isPublic(positionSubscription) && positionUpdateInterval > 0) {
+            return Math.max(stateCacheTimeout,
+                    MAX_MISSED_POSITION_UPDATES * positionUpdateInterval);
+        }
+        return stateCacheTimeout;
+    }
+
+    private static boolean isPublic(Subscription<?, ?> subscription) {
+        return subscription != null && !subscription.isInternal();
+    }
+
+    private void updatePositionInterval(long interval) {
+        try {
+            remoteMediaPlayer.setPositionUpdateInterval(interval);
+        } catch (Exception e) {
+            // position is still updated with play state changes
+        }
+    }
+
+    PlayStateStatus createPlayStateStatusFromFireTVStatus(MediaPlayerStatus status) {
+        PlayStateStatus playState = PlayStateStatus.Unknown;
+        if (status != null) {
             switch (status.getState()) {
                 case PreparingMedia:
                     playState = PlayStateStatus.Buffering;
@@ -508,166 +1325,1566 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
                     playState = PlayStateStatus.Idle;
             }
         }
-        return playState;
-    }
+        return playState;
+    }
+
+    private MediaLaunchObject createMediaLaunchObject(PlaylistControl playlistControl) {
+        LaunchSession launchSession = new LaunchSession();
+        launchSession.setService(this);
+        launchSession.setSessionType(LaunchSession.LaunchSessionType.Media);
+        launchSession.setAppId(remoteMediaPlayer.getUniqueIdentifier());
+        launchSession.setAppName(remoteMediaPlayer.getName());
+        MediaLaunchObject mediaLaunchObject = new MediaLaunchObject(launchSession, this,
+                playlistControl);
+        return mediaLaunchObject;
+    }
+
+    private void stopPlaylist() {
+        playlist.clear();
+        playlistStatusListener.setActive(false);
+    }
+
+    private void playPlaylistItem(FireTVPlaylist.Step step, String error,
+                                  ResponseListener<Object> listener) {
+        if (step == null) {
+            postError(track(listener), new FireTVServiceError(error));
+            return;
+        }
+        setMediaSource(step.getItem(), track(new PlaylistStepListener(step, listener)),
+                playlistLaunchConverter);
+    }
+
+    private void playItem(MediaInfo item, ResponseListener<MediaLaunchObject> listener) {
+        setMediaSource(item, listener, playlistLaunchConverter);
+        preloadNextItem();
+    }
+
+    /**
+     * Serialize metadata of the item which follows the current one, so it's launched without
+     * delay when the current item finishes
+     */
+    private void preloadNextItem() {
+        MediaInfo next = playlist.peekNext(true);
+        if (next != null) {
+            metadataSerializer.serialize(next);
+        }
+    }
+
+    private void setMediaSource(MediaInfo mediaInfo,
+                                final ResponseListener<MediaLaunchObject> listener) {
+        setMediaSource(mediaInfo, listener, launchConverter);
+    }
+
+    private void setMediaSource(MediaInfo mediaInfo,
+                                final ResponseListener<MediaLaunchObject> listener,
+                                ConvertResult<MediaLaunchObject, Void> converter) {
+        final String error = "Error setting media source";
+        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
+        Request<Void> request;
+        if (unsupportedMediaRejected && mediaInfo != null
+                && Boolean.FALSE.equals(mimeTypeCache.isSupported(mediaInfo.getMimeType()))) {
+            postError(listener, new FireTVServiceError(FireTVServiceError.UNSUPPORTED_MIME_TYPE,
+                    "Media type is not supported"));
+            return;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            postError(listener, createCircuitOpenError());
+            return;
+        }
+        playbackState.reset();
+        try {
+            final String url = mediaInfo.getUrl();
+            final String metadata = metadataSerializer.serialize(mediaInfo);
+            request = new Request<Void>() {
+                @Override
+                public RemoteMediaPlayer.AsyncFuture<Void> send() {
+                    return remoteMediaPlayer.setMediaSource(url, metadata, true, false);
+                }
+            };
+            asyncFuture = request.send();
+        } catch (Exception e) {
+            postError(listener, new FireTVServiceError(error, e));
+            return;
+        }
+        handleAsyncFutureWithConversion(listener, asyncFuture, converter, error, request);
+    }
+
+    /**
+     * Deliver result of a sent request to listener
+     * @param retryRequest request which is repeated if it fails on device side, or null if
+     *                     it's not safe to repeat
+     */
+    private <Response, Result> void handleAsyncFutureWithConversion(
+            final ResponseListener<Response> listener,
+            final RemoteMediaPlayer.AsyncFuture<Result> asyncFuture,
+            final ConvertResult<Response, Result> conversion,
+            final String errorMessage,
+            final Request<Result> retryRequest) {
+        if (asyncFuture != null) {
+            Completion<Response, Result> completion = new Completion<Response, Result>(
+                    callbackExecutor, listener, conversion, errorMessage);
+            bindHandle(listener, completion);
+            completion.setCircuitBreaker(circuitBreaker);
+            if (retryRequest != null) {
+                completion.retryWith(retryRequest, retrier);
+            }
+            completion.await(asyncFuture);
+        } else {
+            postError(listener, new FireTVServiceError(errorMessage));
+        }
+    }
+
+    /**
+     * Send a read request or join an identical request which is already in flight. All callers
+     * which have joined the same request receive the same converted result.
+     */
+    private <Response, Result> void handleSharedAsyncFuture(
+            final SharedRequest request,
+            final ResponseListener<Response> listener,
+            final ConvertResult<Response, Result> conversion,
+            final String errorMessage) {
+        if (!circuitBreaker.allowRequest()) {
+            postError(listener, createCircuitOpenError());
+            return;
+        }
+        Completion<Response, Result> completion;
+        boolean joined;
+        synchronized (sharedCalls) {
+            @SuppressWarnings("unchecked")
+            Completion<Response, Result> inFlightCompletion =
+                    (Completion<Response, Result>) sharedCalls.get(request);
+            joined = inFlightCompletion != null && inFlightCompletion.join(listener);
+            if (joined) {
+                completion = inFlightCompletion;
+            } else {
+                completion = new Completion<Response, Result>(callbackExecutor, listener,
+                        conversion, errorMessage);
+                completion.share(sharedCalls, request);
+                completion.setCircuitBreaker(circuitBreaker);
+                if (retryBudget.getPolicy().isEnabled()) {
+                    completion.retryWith(new Request<Result>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public RemoteMediaPlayer.AsyncFuture<Result> send() {
+                            return (RemoteMediaPlayer.AsyncFuture<Result>)
+                                    request.send(remoteMediaPlayer);
+                        }
+                    }, retrier);
+                }
+            }
+        }
+        bindHandle(listener, completion);
+        if (joined) {
+            return;
+        }
+
+        RemoteMediaPlayer.AsyncFuture<Result> asyncFuture;
+        try {
+            @SuppressWarnings("unchecked")
+            RemoteMediaPlayer.AsyncFuture<Result> sentFuture =
+                    (RemoteMediaPlayer.AsyncFuture<Result>) request.send(remoteMediaPlayer);
+            asyncFuture = sentFuture;
+        } catch (Exception e) {
+            completion.fail(new FireTVServiceError(errorMessage, e));
+            return;
+        }
+        if (asyncFuture != null) {
+            completion.await(asyncFuture);
+        } else {
+            completion.fail(new FireTVServiceError(errorMessage));
+        }
+    }
+
+    private FireTVServiceError createCircuitOpenError() {
+        return new FireTVServiceError(FireTVServiceError.CIRCUIT_OPEN,
+                "Device is not responding");
+    }
+
+    /**
+     * Error of a subscription to a service which has no player yet, e.g. a cached device which
+     * isn't verified by discovery
+     */
+    private FireTVServiceError createNoPlayerError() {
+        return new FireTVServiceError("FireTV player is not available");
+    }
+
+    /**
+     * Send a status request which tells the circuit breaker if device responds again
+     */
+    private void sendProbe() {
+        RemoteMediaPlayer.AsyncFuture<MediaPlayerStatus> asyncFuture;
+        try {
+            asyncFuture = remoteMediaPlayer.getStatus();
+        } catch (Exception e) {
+            asyncFuture = null;
+        }
+        if (asyncFuture == null) {
+            circuitBreaker.probeFailed();
+            return;
+        }
+        asyncFuture.getAsync(new RemoteMediaPlayer.FutureListener<MediaPlayerStatus>() {
+            @Override
+            public void futureIsNow(Future<MediaPlayerStatus> future) {
+                try {
+                    future.get();
+                    circuitBreaker.probeSucceeded();
+                } catch (Exception e) {
+                    circuitBreaker.probeFailed();
+                }
+            }
+        });
+    }
+
+    private static void bindHandle(ResponseListener<?> listener,
+                                   FireTVCommandHandle.Owner owner) {
+        if (listener instanceof FireTVCommandHandle) {
+            ((FireTVCommandHandle<?>) listener).bind(owner);
+        }
+    }
+
+    private <Response> void postSuccess(ResponseListener<Response> listener, Response response) {
+        Completion.postSuccess(callbackExecutor, listener, response);
+    }
+
+    private void postError(ResponseListener<?> listener, ServiceCommandError error) {
+        Completion.postError(callbackExecutor, listener, error);
+    }
+
+    /**
+     * Wrap listener into a command handle if service command timeout is set
+     */
+    private <T> ResponseListener<T> track(ResponseListener<T> listener) {
+        return commandTimeout > 0 ? newHandle(listener, Long.MAX_VALUE) : listener;
+    }
+
+    private <T> FireTVCommandHandle<T> newHandle(ResponseListener<T> listener, long deadline) {
+        FireTVCommandHandle<T> handle = new FireTVCommandHandle<T>(listener, callbackExecutor,
+                handler, circuitBreaker);
+        long now = SystemClock.elapsedRealtime();
+        long timeout = commandTimeout;
+        if (timeout > 0) {
+            deadline = Math.min(deadline, now + timeout);
+        }
+        if (deadline != Long.MAX_VALUE) {
+            handle.scheduleTimeout(deadline - now);
+        }
+        return handle;
+    }
+
+    private interface ConvertResult<Response, Result> {
+        Response convert(Result data) throws Exception;
+    }
+
+    /**
+     * Request to device which can be sent again
+     */
+    interface Request<Result> {
+        RemoteMediaPlayer.AsyncFuture<Result> send() throws Exception;
+    }
+
+    /**
+     * Decides if and when a failed request is sent again
+     */
+    interface Retrier {
+
+        /**
+         * Get delay in milliseconds before the given retry, or -1 if the request must not be
+         * retried
+         * @param retry number of the retry starting from 0
+         */
+        long getRetryDelay(int retry);
+
+        void schedule(Runnable runnable, long delay);
+    }
+
+    /**
+     * Read requests which can be shared between concurrent callers
+     */
+    private enum SharedRequest {
+        MEDIA_INFO {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<MediaPlayerInfo> send(RemoteMediaPlayer player) {
+                return player.getMediaInfo();
+            }
+        },
+        DURATION {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<Long> send(RemoteMediaPlayer player) {
+                return player.getDuration();
+            }
+        },
+        POSITION {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<Long> send(RemoteMediaPlayer player) {
+                return player.getPosition();
+            }
+        },
+        STATUS {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<MediaPlayerStatus> send(RemoteMediaPlayer player) {
+                return player.getStatus();
+            }
+        },
+        VOLUME {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<Double> send(RemoteMediaPlayer player) {
+                return player.getVolume();
+            }
+        },
+        MUTE {
+            @Override
+            RemoteMediaPlayer.AsyncFuture<Boolean> send(RemoteMediaPlayer player) {
+                return player.isMute();
+            }
+        };
+
+        abstract RemoteMediaPlayer.AsyncFuture<?> send(RemoteMediaPlayer player);
+    }
+
+    /**
+     * Receives result of a request, converts it and delivers it to listeners on UI thread. A
+     * single instance is used as the future listener and as the runnable which is posted to UI
+     * thread. A result which arrives after all listeners were abandoned is dropped.
+     */
+    static final class Completion<Response, Result>
+            implements RemoteMediaPlayer.FutureListener<Result>, Runnable,
+            FireTVCommandHandle.Owner {
+
+        final List<ResponseListener<Response>> listeners =
+                new ArrayList<ResponseListener<Response>>(1);
+
+        private final ConvertResult<Response, Result> conversion;
+
+        private final String errorMessage;
+
+        private final Executor executor;
+
+        private Map<SharedRequest, Completion<?, ?>> sharedCalls;
+
+        private SharedRequest sharedRequest;
+
+        private Response response;
+
+        private ServiceCommandError error;
+
+        private long resultTime;
+
+        private Request<Result> request;
+
+        private Retrier retrier;
+
+        private int retries;
+
+        private FireTVCircuitBreaker circuitBreaker;
+
+        /**
+         * Future listener is registered or a retry is scheduled and the future hasn't answered yet
+         */
+        private boolean awaitingFuture;
+
+        /**
+         * Result is taken or there are no listeners left, listeners can't be added or removed
+         * anymore
+         */
+        private boolean finished;
+
+        Completion(Executor executor, ResponseListener<Response> listener,
+                   ConvertResult<Response, Result> conversion, String errorMessage) {
+            this.listeners.add(listener);
+            this.executor = executor;
+            this.conversion = conversion;
+            this.errorMessage = errorMessage;
+        }
+
+        /**
+         * Post a result to listener with the given executor
+         */
+        static <Response> void postSuccess(Executor executor, ResponseListener<Response> listener,
+                                           Response response) {
+            if (listener != null) {
+                new Completion<Response, Response>(executor, listener, null, null)
+                        .complete(response);
+            }
+        }
+
+        /**
+         * Post an error to listener with the given executor
+         */
+        @SuppressWarnings("unchecked")
+        static void postError(Executor executor, ResponseListener<?> listener,
+                              ServiceCommandError error) {
+            if (listener != null) {
+                new Completion<Object, Object>(executor, (ResponseListener<Object>) listener,
+                        null, null).fail(error);
+            }
+        }
+
+        /**
+         * Deliver a result to listener, with the result time if it's a timed listener
+         * @param error null if the request succeeded
+         */
+        @SuppressWarnings("unchecked")
+        static <Response> void deliver(ResponseListener<Response> listener, Response response,
+                                       ServiceCommandError error, long resultTime) {
+            if (listener instanceof FireTVTimedListener) {
+                FireTVTimedListener<Response> timedListener =
+                        (FireTVTimedListener<Response>) listener;
+                if (error == null) {
+                    timedListener.onSuccess(response, resultTime);
+                } else {
+                    timedListener.onError(error, resultTime);
+                }
+            } else if (error == null) {
+                listener.onSuccess(response);
+            } else {
+                listener.onError(error);
+            }
+        }
+
+        /**
+         * Mark completion as a shared request so that it's removed from in-flight requests
+         * before the result is delivered
+         */
+        void share(Map<SharedRequest, Completion<?, ?>> sharedCalls, SharedRequest request) {
+            this.sharedCalls = sharedCalls;
+            this.sharedRequest = request;
+            sharedCalls.put(request, this);
+        }
+
+        /**
+         * Add a listener of an identical request
+         * @return false if the result is already taken and a new request has to be sent
+         */
+        synchronized boolean join(ResponseListener<Response> listener) {
+            if (finished) {
+                return false;
+            }
+            listeners.add(listener);
+            return true;
+        }
+
+        /**
+         * Report result of the request to circuit breaker
+         */
+        void setCircuitBreaker(FireTVCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        /**
+         * Allow to send the request again if it fails on device side
+         */
+        void retryWith(Request<Result> request, Retrier retrier) {
+            this.request = request;
+            this.retrier = retrier;
+        }
+
+        /**
+         * Send request with this completion as the future listener
+         */
+        void await(RemoteMediaPlayer.AsyncFuture<Result> asyncFuture) {
+            synchronized (this) {
+                awaitingFuture = true;
+            }
+            asyncFuture.getAsync(this);
+        }
+
+        @Override
+        public boolean release(FireTVCommandHandle<?> handle) {
+            boolean sent;
+            synchronized (this) {
+                if (finished) {
+                    return false;
+                }
+                sent = awaitingFuture;
+                listeners.remove(handle);
+                if (!listeners.isEmpty()) {
+                    return sent;
+                }
+                finished = true;
+            }
+            unshare();
+            return sent;
+        }
+
+        @Override
+        public void futureIsNow(Future<Result> future) {
+            synchronized (this) {
+                awaitingFuture = false;
+                if (finished) {
+                    // result was delivered without waiting for the device
+                    return;
+                }
+            }
+            Result result;
+            try {
+                result = future.get();
+            } catch (ExecutionException e) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.recordError(e.getCause());
+                }
+                if (!scheduleRetry()) {
+                    fail(new FireTVServiceError(errorMessage, e.getCause()));
+                }
+                return;
+            } catch (Exception e) {
+                fail(new FireTVServiceError(errorMessage, e));
+                return;
+            }
+            if (circuitBreaker != null) {
+                circuitBreaker.recordSuccess();
+            }
+            try {
+                complete(conversion.convert(result));
+            } catch (Exception e) {
+                fail(new FireTVServiceError(errorMessage, e));
+            }
+        }
+
+        private boolean scheduleRetry() {
+            if (retrier == null) {
+                return false;
+            }
+            long delay = retrier.getRetryDelay(retries);
+            if (delay < 0) {
+                return false;
+            }
+            synchronized (this) {
+                retries++;
+                awaitingFuture = true;
+            }
+            retrier.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    resend();
+                }
+            }, delay);
+            return true;
+        }
+
+        private void resend() {
+            synchronized (this) {
+                if (finished) {
+                    awaitingFuture = false;
+                    return;
+                }
+            }
+            RemoteMediaPlayer.AsyncFuture<Result> asyncFuture;
+            FireTVServiceError sendError = null;
+            try {
+                asyncFuture = request.send();
+                if (asyncFuture == null) {
+                    sendError = new FireTVServiceError(errorMessage);
+                }
+            } catch (Exception e) {
+                asyncFuture = null;
+                sendError = new FireTVServiceError(errorMessage, e);
+            }
+            if (sendError == null) {
+                asyncFuture.getAsync(this);
+                return;
+            }
+            synchronized (this) {
+                awaitingFuture = false;
+            }
+            fail(sendError);
+        }
+
+        void complete(Response response) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                this.response = response;
+                resultTime = SystemClock.elapsedRealtime();
+            }
+            post();
+        }
+
+        void fail(ServiceCommandError error) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                this.error = error;
+                resultTime = SystemClock.elapsedRealtime();
+            }
+            post();
+        }
+
+        private void post() {
+            unshare();
+            executor.execute(this);
+        }
+
+        private void unshare() {
+            if (sharedCalls != null) {
+                synchronized (sharedCalls) {
+                    if (sharedCalls.get(sharedRequest) == this) {
+                        sharedCalls.remove(sharedRequest);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            for (ResponseListener<Response> listener : listeners) {
+                if (listener != null) {
+                    deliver(listener, response, error, resultTime);
+                }
+            }
+        }
+    }
+    /**
+     * Base subscription with a copy-on-write listener registry. Listeners can be added and
+     * removed from any thread without locking, and each notification iterates a snapshot of the
+     * registry which is not affected by concurrent changes.
+     */
+    private abstract class Subscription<Status, Listener extends ResponseListener<Status>>
+            implements ServiceSubscription<Listener> {
+
+        final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+        /**
+         * Listeners which are registered by the SDK itself
+         */
+        final CopyOnWriteArraySet<Listener> internalListeners =
+                new CopyOnWriteArraySet<Listener>();
+
+        final AtomicReference<Status> prevStatus = new AtomicReference<Status>();
+
+        public Subscription(Listener listener) {
+            if (listener != null) {
+                this.listeners.add(listener);
+            }
+        }
+
+        /**
+         * Post a changed status to listeners. The push is timestamped before it's handed over to
+         * the callback executor.
+         */
+        void notifyListeners(final Status status) {
+            if (!status.equals(prevStatus.getAndSet(status))) {
+                final long pushTime = SystemClock.elapsedRealtime();
+                callbackExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Listener listener : listeners) {
+                            Completion.deliver(listener, status, null, pushTime);
+                        }
+                    }
+                });
+            }
+        }
+
+        /**
+         * Add a listener unless it's already registered
+         */
+        @Override
+        public Listener addListener(Listener listener) {
+            return addListener(listener, false);
+        }
+
+        /**
+         * @param internal true if the listener is registered by the SDK itself
+         */
+        Listener addListener(Listener listener, boolean internal) {
+            if (listener != null) {
+                if (internal) {
+                    internalListeners.add(listener);
+                }
+                listeners.addIfAbsent(listener);
+            }
+            return listener;
+        }
+
+        @Override
+        public void removeListener(Listener listener) {
+            listeners.remove(listener);
+            internalListeners.remove(listener);
+        }
+
+        /**
+         * Check if all listeners are registered by the SDK itself
+         */
+        boolean isInternal() {
+            return !listeners.isEmpty() && internalListeners.containsAll(listeners);
+        }
+
+        @Override
+        public List<Listener> getListeners() {
+            return listeners;
+        }
+    }
+
+    /**
+     * Commands with a common deadline. Each command returns a handle which allows to cancel it.
+     * Listener receives FireTVServiceError with TIMEOUT code if the deadline passes before the
+     * command is answered.
+     */
+    public class TimedCommands {
+
+        private final long deadline;
+
+        TimedCommands(long deadline) {
+            this.deadline = deadline;
+        }
+
+        public long getDeadline() {
+            return deadline;
+        }
+
+        public FireTVCommandHandle<Object> play(ResponseListener<Object> listener) {
+            return enqueue(CommandType.PLAY, listener);
+        }
+
+        public FireTVCommandHandle<Object> pause(ResponseListener<Object> listener) {
+            return enqueue(CommandType.PAUSE, listener);
+        }
+
+        public FireTVCommandHandle<Object> stop(ResponseListener<Object> listener) {
+            stopPlaylist();
+            return enqueue(CommandType.STOP, listener);
+        }
+
+        public FireTVCommandHandle<Object> seek(long position,
+                                                ResponseListener<Object> listener) {
+            return enqueueSeek(CustomMediaPlayer.PlayerSeekMode.Absolute, position, listener);
+        }
+
+        public FireTVCommandHandle<Object> seekRelative(long offset,
+                                                        ResponseListener<Object> listener) {
+            return enqueueSeek(CustomMediaPlayer.PlayerSeekMode.Relative, offset, listener);
+        }
+
+        public FireTVCommandHandle<Object> volumeUp(ResponseListener<Object> listener) {
+            return enqueueVolume(null, volumeStep, listener);
+        }
+
+        public FireTVCommandHandle<Object> volumeDown(ResponseListener<Object> listener) {
+            return enqueueVolume(null, -volumeStep, listener);
+        }
+
+        public FireTVCommandHandle<Object> setVolume(float volume,
+                                                     ResponseListener<Object> listener) {
+            return enqueueVolume(volume, 0, listener);
+        }
+
+        public FireTVCommandHandle<Long> getPosition(PositionListener listener) {
+            FireTVCommandHandle<Long> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                readPosition(handle);
+            }
+            return handle;
+        }
+
+        public FireTVCommandHandle<Long> getDuration(DurationListener listener) {
+            FireTVCommandHandle<Long> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                readDuration(handle);
+            }
+            return handle;
+        }
+
+        public FireTVCommandHandle<PlayStateStatus> getPlayState(PlayStateListener listener) {
+            FireTVCommandHandle<PlayStateStatus> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                readPlayState(handle);
+            }
+            return handle;
+        }
+
+        public FireTVCommandHandle<MediaInfo> getMediaInfo(MediaInfoListener listener) {
+            FireTVCommandHandle<MediaInfo> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                readMediaInfo(handle);
+            }
+            return handle;
+        }
+
+        public FireTVCommandHandle<MediaLaunchObject> playMedia(MediaInfo mediaInfo,
+                                                                LaunchListener listener) {
+            FireTVCommandHandle<MediaLaunchObject> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                setMediaSource(mediaInfo, handle);
+            }
+            return handle;
+        }
+
+        private FireTVCommandHandle<Object> enqueue(CommandType type,
+                                                    ResponseListener<Object> listener) {
+            FireTVCommandHandle<Object> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                commandQueue.enqueue(new Command(type, handle));
+            }
+            return handle;
+        }
+
+        private FireTVCommandHandle<Object> enqueueSeek(CustomMediaPlayer.PlayerSeekMode mode,
+                                                        long position,
+                                                        ResponseListener<Object> listener) {
+            FireTVCommandHandle<Object> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                commandQueue.enqueue(new Command(mode, position, handle));
+            }
+            return handle;
+        }
+
+        private FireTVCommandHandle<Object> enqueueVolume(Float volume, float delta,
+                                                          ResponseListener<Object> listener) {
+            FireTVCommandHandle<Object> handle = newHandle(listener, deadline);
+            if (!handle.isDone()) {
+                volumeQueue.enqueue(volume, delta, handle);
+            }
+            return handle;
+        }
+    }
+
+    /**
+     * Ordered queue of playback commands of this device. At most maxInFlight commands are sent
+     * to device at a time and the rest wait in the queue, which holds at most capacity commands.
+     * A new command is merged with the last waiting one where possible:
+     * <ul>
+     *     <li>a repeated play, pause or stop shares the waiting command;</li>
+     *     <li>play and pause replace each other, and if the device is already in the requested
+     *     state both commands are dropped;</li>
+     *     <li>an absolute seek replaces a waiting seek and a relative seek is added to it.</li>
+     * </ul>
+     * Listeners of a replaced command receive FireTVServiceError with SUPERSEDED code. A command
+     * which can't be merged into a full queue is rejected with QUEUE_FULL code.
+     */
+    public class CommandQueue implements FireTVCommandHandle.Owner {
+
+        private static final String ERROR_SUPERSEDED = "Command superseded by a newer command";
+
+        private static final String ERROR_QUEUE_FULL = "Command queue is full";
+
+        private final LinkedList<Command> pending = new LinkedList<Command>();
+
+        private final List<Command> inFlight = new ArrayList<Command>();
+
+        private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+        private int capacity = DEFAULT_QUEUE_CAPACITY;
+
+        /**
+         * Playing state requested by the last sent command or null if it's unknown
+         */
+        private Boolean sentPlaying;
+
+        private int maxPendingCount;
+
+        private long mergedCount;
+
+        private long rejectedCount;
+
+        private long completedCount;
+
+        CommandQueue() {
+        }
+
+        /**
+         * Set how many commands can be sent to device without waiting for a response. The default
+         * value of 1 keeps commands strictly in order.
+         */
+        public void setMaxInFlight(int maxInFlight) {
+            List<Command> ready;
+            synchronized (this) {
+                this.maxInFlight = Math.max(1, maxInFlight);
+                ready = pollReady();
+            }
+            sendAll(ready);
+        }
+
+        public synchronized int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Set how many commands can wait in the queue
+         */
+        public synchronized void setCapacity(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+
+        public synchronized int getCapacity() {
+            return capacity;
+        }
+
+        /**
+         * Get number of commands which wait to be sent
+         */
+        public synchronized int getPendingCount() {
+            return pending.size();
+        }
+
+        /**
+         * Get number of commands which are sent and not answered yet
+         */
+        public synchronized int getInFlightCount() {
+            return inFlight.size();
+        }
+
+        /**
+         * Get the biggest number of waiting commands observed since the last resetMetrics call
+         */
+        public synchronized int getMaxPendingCount() {
+            return maxPendingCount;
+        }
+
+        /**
+         * Get number of commands which were merged into waiting ones instead of being sent
+         */
+        public synchronized long getMergedCount() {
+            return mergedCount;
+        }
+
+        /**
+         * Get number of commands rejected because the queue was full
+         */
+        public synchronized long getRejectedCount() {
+            return rejectedCount;
+        }
+
+        /**
+         * Get number of commands answered by device
+         */
+        public synchronized long getCompletedCount() {
+            return completedCount;
+        }
+
+        public synchronized void resetMetrics() {
+            maxPendingCount = pending.size();
+            mergedCount = 0;
+            rejectedCount = 0;
+            completedCount = 0;
+        }
+
+        void enqueue(Command command) {
+            ResponseListener<Object> caller = command.listeners.get(0);
+            if (!circuitBreaker.allowRequest()) {
+                postError(caller, createCircuitOpenError());
+                return;
+            }
+            List<ResponseListener<Object>> superseded = null;
+            List<ResponseListener<Object>> cancelled = null;
+            boolean rejected = false;
+            boolean queued = true;
+            List<Command> ready;
+            synchronized (this) {
+                Command last = pending.peekLast();
+                if (last != null && last.type == command.type && command.type != CommandType.SEEK) {
+                    last.listeners.addAll(command.listeners);
+                    mergedCount++;
+                } else if (last != null && last.type == CommandType.SEEK
+                        && command.type == CommandType.SEEK) {
+                    if (command.seekMode == CustomMediaPlayer.PlayerSeekMode.Absolute) {
+                        superseded = last.listeners;
+                        last.seekMode = command.seekMode;
+                        last.position = command.position;
+                        last.listeners = command.listeners;
+                        last.offsets = command.offsets;
+                    } else {
+                        // relative seek is applied on top of waiting one
+                        last.position += command.position;
+                        last.listeners.addAll(command.listeners);
+                        last.offsets.addAll(command.offsets);
+                    }
+                    mergedCount++;
+                } else if (last != null && last.isToggle() && command.isToggle()) {
+                    pending.removeLast();
+                    Boolean playingBefore = getPlayingBeforePending();
+                    if (playingBefore != null && playingBefore == command.getPlayingAfter()) {
+                        // device is already in the requested state
+                        cancelled = last.listeners;
+                        cancelled.addAll(command.listeners);
+                        queued = false;
+                        mergedCount += 2;
+                    } else {
+                        superseded = last.listeners;
+                        pending.add(command);
+                        mergedCount++;
+                    }
+                } else if (pending.size() >= capacity) {
+                    rejected = true;
+                    queued = false;
+                    rejectedCount++;
+                } else {
+                    pending.add(command);
+                    maxPendingCount = Math.max(maxPendingCount, pending.size());
+                }
+                ready = pollReady();
+            }
+            if (superseded != null) {
+                FireTVServiceError error = new FireTVServiceError(FireTVServiceError.SUPERSEDED,
+                        ERROR_SUPERSEDED);
+                for (ResponseListener<Object> listener : superseded) {
+                    postError(listener, error);
+                }
+            }
+            if (cancelled != null) {
+                for (ResponseListener<Object> listener : cancelled) {
+                    postSuccess(listener, null);
+                }
+            }
+            if (rejected) {
+                FireTVServiceError error = new FireTVServiceError(FireTVServiceError.QUEUE_FULL,
+                        ERROR_QUEUE_FULL);
+                for (ResponseListener<Object> listener : command.listeners) {
+                    postError(listener, error);
+                }
+            }
+            if (queued) {
+                bindHandle(caller, this);
+            }
+            sendAll(ready);
+        }
+
+        /**
+         * Get playing state which device will have when all sent commands and all waiting
+         * commands are executed, or null if it's unknown
+         */
+        private Boolean getPlayingBeforePending() {
+            for (Iterator<Command> iterator = pending.descendingIterator(); iterator.hasNext();) {
+                Command command = iterator.next();
+                if (command.getPlayingAfter() != null) {
+                    return command.getPlayingAfter();
+                }
+            }
+            if (sentPlaying != null || !inFlight.isEmpty()) {
+                return sentPlaying;
+            }
+            if (playbackState.getStatus(SystemClock.elapsedRealtime(), stateCacheTimeout) != null) {
+                return playbackState.isPlaying();
+            }
+            return null;
+        }
+
+        private List<Command> pollReady() {
+            List<Command> ready = null;
+            while (inFlight.size() < maxInFlight && !pending.isEmpty()) {
+                Command command = pending.poll();
+                inFlight.add(command);
+                if (command.getPlayingAfter() != null) {
+                    sentPlaying = command.getPlayingAfter();
+                }
+                if (ready == null) {
+                    ready = new ArrayList<Command>(1);
+                }
+                ready.add(command);
+            }
+            return ready;
+        }
+
+        private void sendAll(List<Command> commands) {
+            if (commands != null) {
+                for (Command command : commands) {
+                    send(command);
+                }
+            }
+        }
+
+        private void send(Command command) {
+            RemoteMediaPlayer.AsyncFuture<Void> asyncFuture;
+            if (!circuitBreaker.allowRequest()) {
+                complete(command, createCircuitOpenError());
+                return;
+            }
+            if (command.type == CommandType.STOP) {
+                playbackState.reset();
+            } else {
+                playbackState.invalidate();
+            }
+            try {
+                switch (command.type) {
+                    case PLAY:
+                        asyncFuture = remoteMediaPlayer.play();
+                        break;
+                    case PAUSE:
+                        asyncFuture = remoteMediaPlayer.pause();
+                        break;
+                    case STOP:
+                        asyncFuture = remoteMediaPlayer.stop();
+                        break;
+                    default:
+                        asyncFuture = remoteMediaPlayer.seek(command.seekMode, command.position);
+                        break;
+                }
+            } catch (Exception e) {
+                complete(command, new FireTVServiceError(command.getErrorMessage(), e));
+                return;
+            }
+            if (asyncFuture != null) {
+                asyncFuture.getAsync(command);
+            } else {
+                complete(command, new FireTVServiceError(command.getErrorMessage()));
+            }
+        }
 
-    private String getMetadata(MediaInfo mediaInfo)
-            throws JSONException {
-        JSONObject json = new JSONObject();
-        if (mediaInfo.getTitle() != null && !mediaInfo.getTitle().isEmpty()) {
-            json.put(META_TITLE, mediaInfo.getTitle());
+        void complete(Command command, FireTVServiceError error) {
+            List<Command> ready;
+            List<ResponseListener<Object>> listeners;
+            synchronized (this) {
+                if (!inFlight.remove(command)) {
+                    // command was abandoned by all its callers
+                    return;
+                }
+                completedCount++;
+                if (inFlight.isEmpty()
+                        || error != null && command.getPlayingAfter() != null) {
+                    // once the queue drains device state is taken from status pushes
+                    sentPlaying = null;
+                }
+                listeners = command.listeners;
+                ready = pollReady();
+            }
+            for (ResponseListener<Object> listener : listeners) {
+                if (error == null) {
+                    postSuccess(listener, null);
+                } else {
+                    postError(listener, error);
+                }
+            }
+            sendAll(ready);
         }
-        if (mediaInfo.getDescription() != null && !mediaInfo.getDescription().isEmpty()) {
-            json.put(META_DESCRIPTION, mediaInfo.getDescription());
+
+        /**
+         * Send a failed command again after a delay given by the retry policy. The command
+         * keeps its in-flight slot until then.
+         * @return false if the command must not be retried
+         */
+        boolean retry(final Command command) {
+            long delay = retrier.getRetryDelay(command.retries);
+            if (delay < 0) {
+                return false;
+            }
+            command.retries++;
+            retrier.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    resend(command);
+                }
+            }, delay);
+            return true;
         }
-        json.put(META_MIME_TYPE, mediaInfo.getMimeType());
-        if (mediaInfo.getImages() != null && mediaInfo.getImages().size() > 0) {
-            ImageInfo image = mediaInfo.getImages().get(0);
-            if (image != null) {
-                if (image.getUrl() != null && !image.getUrl().isEmpty()) {
-                    json.put(META_ICON_IMAGE, image.getUrl());
+
+        private void resend(Command command) {
+            synchronized (this) {
+                if (!inFlight.contains(command)) {
+                    // command was abandoned while waiting for the retry
+                    return;
                 }
             }
+            send(command);
         }
-        json.put(META_NOREPLAY, true);
-        if (mediaInfo.getSubtitleInfo() != null) {
-            JSONArray tracksArray = new JSONArray();
-            JSONObject trackObj = new JSONObject();
-            trackObj.put(META_KIND, "subtitles");
-            trackObj.put(META_SRC, mediaInfo.getSubtitleInfo().getUrl());
-            String label = mediaInfo.getSubtitleInfo().getLabel();
-            trackObj.put(META_LABEL, label == null ? "" : label);
-            String language = mediaInfo.getSubtitleInfo().getLanguage();
-            trackObj.put(META_SRCLANG, language == null ? "" : language);
-            tracksArray.put(trackObj);
-            json.put(META_TRACKS, tracksArray);
+
+        /**
+         * Remove an abandoned caller. A command without callers is dropped from the queue, or
+         * stops occupying an in-flight slot if it's already sent.
+         */
+        @Override
+        public boolean release(FireTVCommandHandle<?> handle) {
+            List<Command> ready = null;
+            synchronized (this) {
+                if (release(pending, handle, true) != null) {
+                    return false;
+                }
+                Command command = release(inFlight, handle, false);
+                if (command == null) {
+                    return false;
+                }
+                if (command.listeners.isEmpty()) {
+                    if (inFlight.isEmpty()) {
+                        sentPlaying = null;
+                    }
+                    ready = pollReady();
+                }
+            }
+            sendAll(ready);
+            return true;
         }
-        return json.toString();
-    }
 
-    private MediaLaunchObject createMediaLaunchObject() {
-        LaunchSession launchSession = new LaunchSession();
-        launchSession.setService(this);
-        launchSession.setSessionType(LaunchSession.LaunchSessionType.Media);
-        launchSession.setAppId(remoteMediaPlayer.getUniqueIdentifier());
-        launchSession.setAppName(remoteMediaPlayer.getName());
-        MediaLaunchObject mediaLaunchObject = new MediaLaunchObject(launchSession, this);
-        return mediaLaunchObject;
+        /**
+         * Remove a caller from its command. A command without callers is removed from the list.
+         * @param waiting true if the command is not sent yet, so the seek offset of the caller
+         *                is taken back
+         * @return the command or null if the caller is not in the list
+         */
+        private Command release(List<Command> commands, FireTVCommandHandle<?> handle,
+                                boolean waiting) {
+            for (Iterator<Command> iterator = commands.iterator(); iterator.hasNext();) {
+                Command command = iterator.next();
+                int index = command.listeners.indexOf(handle);
+                if (index < 0) {
+                    continue;
+                }
+                command.listeners.remove(index);
+                if (command.offsets != null) {
+                    long offset = command.offsets.remove(index);
+                    if (waiting) {
+                        command.position -= offset;
+                    }
+                }
+                if (command.listeners.isEmpty()) {
+                    iterator.remove();
+                }
+                return command;
+            }
+            return null;
+        }
     }
 
-    private void setMediaSource(MediaInfo mediaInfo, final LaunchListener listener) {
-        final String error = "Error setting media source";
-        RemoteMediaPlayer.AsyncFuture<Void> asyncFuture = null;
-        try {
-            final String metadata = getMetadata(mediaInfo);
-            asyncFuture = remoteMediaPlayer.setMediaSource(mediaInfo.getUrl(), metadata, true, false);
-        } catch (Exception e) {
-            Util.postError(listener, new FireTVServiceError(error, e));
-            return;
+    enum CommandType {
+        PLAY("Error playing"),
+        PAUSE("Error pausing"),
+        STOP("Error stopping"),
+        SEEK("Error seeking");
+
+        final String errorMessage;
+
+        CommandType(String errorMessage) {
+            this.errorMessage = errorMessage;
         }
-        handleAsyncFutureWithConversion(listener, asyncFuture,
-                new ConvertResult<MediaLaunchObject, Void>() {
-            @Override
-            public MediaLaunchObject convert(Void data) {
-                return createMediaLaunchObject();
-            }
-        }, error);
     }
 
-    private void handleVoidAsyncFuture(final ResponseListener<Object> listener,
-                                       final RemoteMediaPlayer.AsyncFuture<Void> asyncFuture,
-                                       final String errorMessage) {
-        handleAsyncFutureWithConversion(listener, asyncFuture, new ConvertResult<Object, Void>() {
-            @Override
-            public Object convert(Void data) {
-                return data;
-            }
-        }, errorMessage);
-    }
+    /**
+     * Playback command in the command queue
+     */
+    class Command implements RemoteMediaPlayer.FutureListener<Void> {
 
-    private <T> void handleAsyncFuture(final ResponseListener<T> listener,
-                                     final RemoteMediaPlayer.AsyncFuture<T> asyncFuture,
-                                     final String errorMessage) {
-        handleAsyncFutureWithConversion(listener, asyncFuture, new ConvertResult<T, T>() {
-            @Override
-            public T convert(T data) {
-                return data;
+        final CommandType type;
+
+        CustomMediaPlayer.PlayerSeekMode seekMode;
+
+        long position;
+
+        List<ResponseListener<Object>> listeners = new ArrayList<ResponseListener<Object>>(1);
+
+        /**
+         * Part of seek position added by each listener, in the order of listeners. It's null for
+         * other commands.
+         */
+        List<Long> offsets;
+
+        int retries;
+
+        Command(CommandType type, ResponseListener<Object> listener) {
+            this.type = type;
+            listeners.add(listener);
+        }
+
+        Command(CustomMediaPlayer.PlayerSeekMode seekMode, long position,
+                ResponseListener<Object> listener) {
+            this(CommandType.SEEK, listener);
+            this.seekMode = seekMode;
+            this.position = position;
+            offsets = new ArrayList<Long>(1);
+            // position of an absolute seek stays when its caller is gone and relative ones remain
+            offsets.add(seekMode == CustomMediaPlayer.PlayerSeekMode.Relative ? position : 0L);
+        }
+
+        boolean isToggle() {
+            return type == CommandType.PLAY || type == CommandType.PAUSE;
+        }
+
+        /**
+         * Get playing state after execution of this command or null if it's not changed
+         */
+        Boolean getPlayingAfter() {
+            switch (type) {
+                case PLAY:
+                    return Boolean.TRUE;
+                case PAUSE:
+                case STOP:
+                    return Boolean.FALSE;
+                default:
+                    return null;
             }
-        }, errorMessage);
-    }
+        }
 
-    private <Response, Result> void handleAsyncFutureWithConversion(
-            final ResponseListener<Response> listener,
-            final RemoteMediaPlayer.AsyncFuture<Result> asyncFuture,
-            final ConvertResult<Response, Result> conversion,
-            final String errorMessage) {
-        if (asyncFuture != null) {
-            asyncFuture.getAsync(new RemoteMediaPlayer.FutureListener<Result>() {
-                @Override
-                public void futureIsNow(Future<Result> future) {
-                    try {
-                        Result result = future.get();
-                        Util.postSuccess(listener, conversion.convert(result));
-                    } catch (ExecutionException e) {
-                        Util.postError(listener, new FireTVServiceError(errorMessage,
-                                e.getCause()));
-                    } catch (Exception e) {
-                        Util.postError(listener, new FireTVServiceError(errorMessage, e));
-                    }
+        String getErrorMessage() {
+            return type.errorMessage;
+        }
+
+        /**
+         * Only absolute seek has the same effect when it's repeated
+         */
+        boolean isRetryable() {
+            return type == CommandType.SEEK
+                    && seekMode == CustomMediaPlayer.PlayerSeekMode.Absolute;
+        }
+
+        @Override
+        public void futureIsNow(Future<Void> future) {
+            try {
+                future.get();
+                circuitBreaker.recordSuccess();
+                commandQueue.complete(this, null);
+            } catch (ExecutionException e) {
+                circuitBreaker.recordError(e.getCause());
+                if (isRetryable() && commandQueue.retry(this)) {
+                    return;
                 }
-            });
-        } else {
-            Util.postError(listener, new FireTVServiceError(errorMessage));
+                commandQueue.complete(this, new FireTVServiceError(getErrorMessage(),
+                        e.getCause()));
+            } catch (Exception e) {
+                commandQueue.complete(this, new FireTVServiceError(getErrorMessage(), e));
+            }
         }
     }
 
-    private interface ConvertResult<Response, Result> {
-        Response convert(Result data) throws Exception;
+    /**
+     * Request and result conversion of a mute change. There is one instance for each mute state,
+     * so setting mute doesn't allocate them per call.
+     */
+    class MuteChange implements Request<Void>, ConvertResult<Object, Void> {
+
+        private final boolean mute;
+
+        MuteChange(boolean mute) {
+            this.mute = mute;
+        }
+
+        @Override
+        public RemoteMediaPlayer.AsyncFuture<Void> send() {
+            return remoteMediaPlayer.setMute(mute);
+        }
+
+        @Override
+        public Object convert(Void data) {
+            playbackState.updateMute(mute, SystemClock.elapsedRealtime());
+            MuteSubscription subscription = muteSubscription;
+            if (subscription != null) {
+                subscription.notifyListeners(mute);
+            }
+            return null;
+        }
     }
 
-    private abstract static class Subscription<Status, Listener extends ResponseListener<Status>>
-            implements ServiceSubscription<Listener> {
+    /**
+     * Volume changes of this device. Only one volume request is sent at a time. Changes which
+     * are requested meanwhile wait and are merged: a step is added to the waiting change and an
+     * absolute volume replaces it. When the device answers, the merged change is sent as a
+     * single absolute volume and all its callers receive the result of that request. If current
+     * volume is unknown it's requested before the first step is applied. A request which is
+     * abandoned by all its callers doesn't hold the next change back, and a waiting change
+     * abandoned by all its callers is dropped.
+     */
+    class VolumeQueue implements FireTVCommandHandle.Owner {
 
-        List<Listener> listeners = new ArrayList<Listener>();
+        private static final String ERROR_SET_VOLUME = "Error setting volume";
 
-        Status prevStatus;
+        private List<ResponseListener<Object>> pending = new ArrayList<ResponseListener<Object>>(1);
 
-        public Subscription(Listener listener) {
-            if (listener != null) {
-                this.listeners.add(listener);
+        private List<ResponseListener<Object>> inFlight;
+
+        /**
+         * Absolute volume of the waiting change or null if it consists of steps only
+         */
+        private Float target;
+
+        private float delta;
+
+        /**
+         * Number of the last sent request, answers to earlier requests are not delivered
+         */
+        private int requestNumber;
+
+        /**
+         * Volume request is in flight or current volume is being read
+         */
+        private boolean busy;
+
+        VolumeQueue() {
+        }
+
+        /**
+         * @param volume absolute volume, or null to change current volume by delta
+         */
+        void enqueue(Float volume, float delta, ResponseListener<Object> listener) {
+            if (!circuitBreaker.allowRequest()) {
+                postError(listener, createCircuitOpenError());
+                return;
+            }
+            boolean send;
+            synchronized (this) {
+                if (volume != null) {
+                    target = volume;
+                    this.delta = 0;
+                } else {
+                    this.delta += delta;
+                }
+                pending.add(listener);
+                send = !busy;
+                busy = true;
+            }
+            bindHandle(listener, this);
+            if (send) {
+                sendPending();
             }
         }
 
-        synchronized void notifyListeners(final Status status) {
-            if (!status.equals(prevStatus)) {
-                Util.runOnUI(new Runnable() {
+        private void sendPending() {
+            boolean needsVolume;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    busy = false;
+                    return;
+                }
+                needsVolume = target == null;
+            }
+            if (needsVolume
+                    && !playbackState.hasVolume(SystemClock.elapsedRealtime(), getStateMaxAge())) {
+                readVolume(new ResponseListener<Float>() {
                     @Override
-                    public void run() {
-                        for (Listener listener : listeners) {
-                            listener.onSuccess(status);
-                        }
+                    public void onSuccess(Float volume) {
+                        send(volume);
+                    }
+
+                    @Override
+                    public void onError(ServiceCommandError error) {
+                        failPending(error);
                     }
                 });
-                prevStatus = status;
+                return;
             }
+            send(playbackState.getVolume());
         }
 
-        @Override
-        public Listener addListener(Listener listener) {
-            if (listener != null) {
-                listeners.add(listener);
+        private void send(float currentVolume) {
+            VolumeRequest request;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    // all callers have abandoned the change while volume was read
+                    busy = false;
+                    return;
+                }
+                float volume = (target != null ? target : currentVolume) + delta;
+                request = new VolumeRequest(++requestNumber, Math.max(0, Math.min(1, volume)));
+                target = null;
+                delta = 0;
+                inFlight = pending;
+                pending = new ArrayList<ResponseListener<Object>>(1);
+            }
+            if (!circuitBreaker.allowRequest()) {
+                complete(request, createCircuitOpenError());
+                return;
+            }
+            RemoteMediaPlayer.AsyncFuture<Void> asyncFuture;
+            try {
+                asyncFuture = remoteMediaPlayer.setVolume(request.volume);
+            } catch (Exception e) {
+                complete(request, new FireTVServiceError(ERROR_SET_VOLUME, e));
+                return;
+            }
+            if (asyncFuture != null) {
+                asyncFuture.getAsync(request);
+            } else {
+                complete(request, new FireTVServiceError(ERROR_SET_VOLUME));
             }
-            return listener;
         }
 
-        @Override
-        public void removeListener(Listener listener) {
-            listeners.remove(listener);
+        private synchronized boolean isCurrent(VolumeRequest request) {
+            return request.number == requestNumber && inFlight != null;
+        }
+
+        private void complete(VolumeRequest request, ServiceCommandError error) {
+            List<ResponseListener<Object>> listeners;
+            synchronized (this) {
+                if (request.number != requestNumber || inFlight == null) {
+                    // request was abandoned by all its callers
+                    return;
+                }
+                listeners = inFlight;
+                inFlight = null;
+            }
+            for (ResponseListener<Object> listener : listeners) {
+                if (error == null) {
+                    postSuccess(listener, null);
+                } else {
+                    postError(listener, error);
+                }
+            }
+            sendPending();
+        }
+
+        private void failPending(ServiceCommandError error) {
+            List<ResponseListener<Object>> listeners;
+            synchronized (this) {
+                listeners = pending;
+                pending = new ArrayList<ResponseListener<Object>>(1);
+                target = null;
+                delta = 0;
+                busy = false;
+            }
+            for (ResponseListener<Object> listener : listeners) {
+                postError(listener, error);
+            }
         }
 
+        /**
+         * Remove an abandoned caller. A waiting change without callers is dropped, and a sent
+         * request without callers stops holding the next change back. A step of a caller which
+         * is merged with steps of other callers is still applied.
+         */
         @Override
-        public List<Listener> getListeners() {
-            return listeners;
+        public boolean release(FireTVCommandHandle<?> handle) {
+            synchronized (this) {
+                if (pending.remove(handle)) {
+                    if (pending.isEmpty()) {
+                        target = null;
+                        delta = 0;
+                    }
+                    return false;
+                }
+                if (inFlight == null || !inFlight.remove(handle)) {
+                    return false;
+                }
+                if (!inFlight.isEmpty()) {
+                    return true;
+                }
+                inFlight = null;
+            }
+            sendPending();
+            return true;
+        }
+
+        /**
+         * Sent volume request which receives the answer of device
+         */
+        class VolumeRequest implements RemoteMediaPlayer.FutureListener<Void> {
+
+            final int number;
+
+            final float volume;
+
+            VolumeRequest(int number, float volume) {
+                this.number = number;
+                this.volume = volume;
+            }
+
+            @Override
+            public void futureIsNow(Future<Void> future) {
+                try {
+                    future.get();
+                    circuitBreaker.recordSuccess();
+                    if (isCurrent(this)) {
+                        playbackState.updateVolume(volume, SystemClock.elapsedRealtime());
+                        VolumeSubscription subscription = volumeSubscription;
+                        if (subscription != null) {
+                            subscription.notifyListeners(volume);
+                        }
+                    }
+                    complete(this, null);
+                } catch (ExecutionException e) {
+                    circuitBreaker.recordError(e.getCause());
+                    complete(this, new FireTVServiceError(ERROR_SET_VOLUME, e.getCause()));
+                } catch (Exception e) {
+                    complete(this, new FireTVServiceError(ERROR_SET_VOLUME, e));
+                }
+            }
         }
     }
 
@@ -683,6 +2900,7 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
 
         @Override
         public void onStatusChange(MediaPlayerStatus mediaPlayerStatus, long position) {
+            playbackState.update(mediaPlayerStatus, position, SystemClock.elapsedRealtime());
             final PlayStateStatus status = createPlayStateStatusFromFireTVStatus(mediaPlayerStatus);
             notifyListeners(status);
         }
@@ -695,4 +2913,181 @@ public class FireTVService extends DeviceService implements MediaPlayer, MediaCo
 
     }
 
+    /**
+     * Internal position subscription implementation
+     */
+    class PositionSubscription extends Subscription<Long, PositionListener>
+            implements CustomMediaPlayer.StatusListener {
+
+        public PositionSubscription(PositionListener listener) {
+            super(listener);
+        }
+
+        @Override
+        public void onStatusChange(MediaPlayerStatus mediaPlayerStatus, long position) {
+            playbackState.update(mediaPlayerStatus, position, SystemClock.elapsedRealtime());
+            if (mediaPlayerStatus != null && position >= 0) {
+                notifyListeners(position);
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            remoteMediaPlayer.removeStatusListener(this);
+            updatePositionInterval(0);
+            positionSubscription = null;
+        }
+
+    }
+
+    /**
+     * Listener of a playlist item launch. The item becomes current in the playlist only when
+     * it's launched, and the launch object is delivered to the listener as a result of any type.
+     */
+    class PlaylistStepListener implements ResponseListener<MediaLaunchObject> {
+
+        private final FireTVPlaylist.Step step;
+
+        private final ResponseListener<Object> listener;
+
+        PlaylistStepListener(FireTVPlaylist.Step step, ResponseListener<Object> listener) {
+            this.step = step;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onSuccess(MediaLaunchObject launchObject) {
+            if (playlist.moveTo(step)) {
+                preloadNextItem();
+            }
+            if (listener != null) {
+                listener.onSuccess(launchObject);
+            }
+        }
+
+        @Override
+        public void onError(ServiceCommandError error) {
+            if (listener != null) {
+                listener.onError(error);
+            }
+        }
+    }
+
+    /**
+     * Moves the playlist on as soon as device reports that the current item has finished.
+     * It's registered as a status listener only while the playlist can move on.
+     */
+    class PlaylistStatusListener implements CustomMediaPlayer.StatusListener {
+
+        /**
+         * Serializes registration of the listener, so it's registered at most once. It's not the
+         * listener lock, so status pushes are not blocked by a registration.
+         */
+        private final Object registrationLock = new Object();
+
+        private boolean active;
+
+        /**
+         * Finished state is already handled, repeated pushes of it are ignored until another
+         * state is reported
+         */
+        private boolean finishHandled;
+
+        void setActive(boolean active) {
+            synchronized (registrationLock) {
+                synchronized (this) {
+                    if (this.active == active) {
+                        return;
+                    }
+                    this.active = active;
+                    finishHandled = false;
+                }
+                try {
+                    if (active) {
+                        remoteMediaPlayer.addStatusListener(this);
+                    } else {
+                        remoteMediaPlayer.removeStatusListener(this);
+                    }
+                } catch (Exception e) {
+                    // playlist is still controlled by next and previous
+                }
+            }
+        }
+
+        @Override
+        public void onStatusChange(MediaPlayerStatus mediaPlayerStatus, long position) {
+            if (mediaPlayerStatus == null) {
+                return;
+            }
+            playbackState.update(mediaPlayerStatus, position, SystemClock.elapsedRealtime());
+            synchronized (this) {
+                if (mediaPlayerStatus.getState() != MediaPlayerStatus.MediaState.Finished) {
+                    finishHandled = false;
+                    return;
+                }
+                if (!active || finishHandled) {
+                    return;
+                }
+                finishHandled = true;
+            }
+            FireTVPlaylist.Step next = playlist.getNext(true);
+            if (next != null) {
+                setMediaSource(next.getItem(), new PlaylistStepListener(next, null),
+                        playlistLaunchConverter);
+            }
+        }
+    }
+
+    /**
+     * Internal volume subscription implementation
+     */
+    class VolumeSubscription extends Subscription<Float, VolumeListener>
+            implements CustomMediaPlayer.StatusListener {
+
+        public VolumeSubscription(VolumeListener listener) {
+            super(listener);
+        }
+
+        @Override
+        public void onStatusChange(MediaPlayerStatus mediaPlayerStatus, long position) {
+            playbackState.update(mediaPlayerStatus, position, SystemClock.elapsedRealtime());
+            if (mediaPlayerStatus != null && mediaPlayerStatus.isVolumeSet()) {
+                notifyListeners((float) mediaPlayerStatus.getVolume());
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            remoteMediaPlayer.removeStatusListener(this);
+            volumeSubscription = null;
+        }
+
+    }
+
+    /**
+     * Internal mute subscription implementation
+     */
+    class MuteSubscription extends Subscription<Boolean, MuteListener>
+            implements CustomMediaPlayer.StatusListener {
+
+        public MuteSubscription(MuteListener listener) {
+            super(listener);
+        }
+
+        @Override
+        public void onStatusChange(MediaPlayerStatus mediaPlayerStatus, long position) {
+            playbackState.update(mediaPlayerStatus, position, SystemClock.elapsedRealtime());
+            if (mediaPlayerStatus != null && mediaPlayerStatus.isMuteSet()) {
+                notifyListeners(mediaPlayerStatus.isMute());
+            }
+        }
+
+        @Override
+        public void unsubscribe() {
+            remoteMediaPlayer.removeStatusListener(this);
+            muteSubscription = null;
+        }
+
+    }
+
 }
@@ -0,0 +1,41 @@
+/*
+ * FireTVTimedListener
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.service.capability.listeners.ResponseListener;
+import com.connectsdk.service.command.ServiceCommandError;
+
+/**
+ * Internal listener which also receives the time when a result was received from Fling SDK,
+ * before it was handed over to the callback executor. FireTVService calls the timed methods
+ * instead of the plain ones when a listener implements this interface.
+ */
+interface FireTVTimedListener<T> extends ResponseListener<T> {
+
+    /**
+     * @param resultTime time in SystemClock.elapsedRealtime() base
+     */
+    void onSuccess(T object, long resultTime);
+
+    /**
+     * @param resultTime time in SystemClock.elapsedRealtime() base
+     */
+    void onError(ServiceCommandError error, long resultTime);
+}
@@ -25,6 +25,37 @@ package com.connectsdk.service.command;
  */
 public class FireTVServiceError extends ServiceCommandError {
 
+    /**
+     * Error code for a command which was replaced by a newer command before it was sent to device
+     */
+    public static final int SUPERSEDED = 1001;
+
+    /**
+     * Error code for a command which was rejected because the command queue of device is full
+     */
+    public static final int QUEUE_FULL = 1002;
+
+    /**
+     * Error code for a command which wasn't answered by device before its deadline
+     */
+    public static final int TIMEOUT = 1003;
+
+    /**
+     * Error code for a command which was cancelled by the caller
+     */
+    public static final int CANCELLED = 1004;
+
+    /**
+     * Error code for a command which was not sent because the device has stopped responding
+     */
+    public static final int CIRCUIT_OPEN = 1005;
+
+    /**
+     * Error code for media which was not sent because device reported its MIME type as
+     * unsupported
+     */
+    public static final int UNSUPPORTED_MIME_TYPE = 1006;
+
     public FireTVServiceError(String message) {
         super(message);
     }
@@ -33,4 +64,8 @@ public class FireTVServiceError extends ServiceCommandError {
         super(message);
         this.payload = e;
     }
+
+    public FireTVServiceError(int code, String message) {
+        super(code, message);
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * FireTVDeviceCacheTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.discovery.provider;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVDeviceCacheTest {
+
+    private File file;
+
+    private FireTVDeviceCache cache;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("firetv", ".cache");
+        file.delete();
+        cache = new FireTVDeviceCache(file);
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testLoadMissingFile() {
+        Assert.assertTrue(cache.load(1000, 1000).isEmpty());
+    }
+
+    @Test
+    public void testSaveAndLoad() {
+        Assert.assertTrue(cache.save(Arrays.asList(
+                new FireTVDeviceCache.Entry("UID1", "Living room", 1000),
+                new FireTVDeviceCache.Entry("UID2", null, 2000))));
+
+        List<FireTVDeviceCache.Entry> entries = cache.load(2000, 5000);
+
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals("UID1", entries.get(0).uid);
+        Assert.assertEquals("Living room", entries.get(0).friendlyName);
+        Assert.assertEquals(1000, entries.get(0).lastSeen);
+        Assert.assertEquals("UID2", entries.get(1).uid);
+        Assert.assertEquals("", entries.get(1).friendlyName);
+        Assert.assertEquals(2000, entries.get(1).lastSeen);
+    }
+
+    @Test
+    public void testLoadSkipsExpiredEntries() {
+        cache.save(Arrays.asList(
+                new FireTVDeviceCache.Entry("UID1", "Old", 1000),
+                new FireTVDeviceCache.Entry("UID2", "New", 9000)));
+
+        List<FireTVDeviceCache.Entry> entries = cache.load(10000, 5000);
+
+        Assert.assertEquals(1, entries.size());
+        Assert.assertEquals("UID2", entries.get(0).uid);
+    }
+
+    @Test
+    public void testLoadCorruptedFile() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(new byte[] {1, 2, 3, 4, 5, 6, 7});
+        out.close();
+
+        Assert.assertTrue(cache.load(1000, 1000).isEmpty());
+    }
+
+    @Test
+    public void testLoadTruncatedFile() throws IOException {
+        cache.save(Arrays.asList(new FireTVDeviceCache.Entry("UID1", "Living room", 1000)));
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        randomAccessFile.setLength(randomAccessFile.length() - 4);
+        randomAccessFile.close();
+
+        Assert.assertTrue(cache.load(1000, 1000).isEmpty());
+    }
+
+}
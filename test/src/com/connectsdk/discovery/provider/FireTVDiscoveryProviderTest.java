@@ -24,6 +24,7 @@ import com.amazon.whisperplay.fling.media.controller.DiscoveryController;
 import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
 import com.connectsdk.discovery.DiscoveryProvider;
 import com.connectsdk.discovery.DiscoveryProviderListener;
+import com.connectsdk.service.FireTVCallbackExecutors;
 import com.connectsdk.service.FireTVService;
 import com.connectsdk.service.command.ServiceCommandError;
 import com.connectsdk.service.config.ServiceDescription;
@@ -39,6 +40,13 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 
 @RunWith(RobolectricTestRunner.class)
 @Config(manifest=Config.NONE)
@@ -326,6 +334,105 @@ public class FireTVDiscoveryProviderTest {
         Mockito.verify(controller, Mockito.times(1)).stop();
     }
 
+    @Test
+    public void testRescanWhenNotRunning() {
+        provider.rescan();
+        Mockito.verify(controller, Mockito.times(1)).start(provider.fireTVListener);
+        Mockito.verify(controller, Mockito.times(0)).stop();
+    }
+
+    @Test
+    public void testRescanKeepsRediscoveredServices() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        ServiceDescription serviceDescription = provider.foundServices.get("UID");
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        // when
+        provider.rescan();
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(provider.getRescanWindow());
+
+        // then
+        Assert.assertSame(serviceDescription, provider.foundServices.get("UID"));
+        Mockito.verify(listener, Mockito.times(1)).onServiceAdded(provider, serviceDescription);
+        Mockito.verify(listener, Mockito.times(0)).onServiceRemoved(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+    }
+
+    @Test
+    public void testRescanDoesNotStopDiscoveryWithFoundServices() {
+        // given
+        provider.start();
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // when
+        provider.rescan();
+
+        // then
+        Mockito.verify(controller, Mockito.times(1)).start(provider.fireTVListener);
+        Mockito.verify(controller, Mockito.times(0)).stop();
+        Assert.assertEquals(1, provider.foundServices.size());
+    }
+
+    @Test
+    public void testRescanRemovesOnlyServicesWhichAreNotConfirmed() {
+        // given
+        RemoteMediaPlayer confirmedPlayer = mockRemoteMediaPlayer();
+        RemoteMediaPlayer missingPlayer = Mockito.mock(RemoteMediaPlayer.class);
+        Mockito.when(missingPlayer.getUniqueIdentifier()).thenReturn("MISSING");
+        Mockito.when(missingPlayer.getName()).thenReturn("Missing");
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(confirmedPlayer);
+        provider.fireTVListener.playerDiscovered(missingPlayer);
+        ServiceDescription confirmedService = provider.foundServices.get("UID");
+        ServiceDescription missingService = provider.foundServices.get("MISSING");
+
+        // when
+        provider.rescan();
+        provider.fireTVListener.playerDiscovered(confirmedPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(provider.getRescanWindow() - 1);
+        Assert.assertEquals(2, provider.foundServices.size());
+        Robolectric.getUiThreadScheduler().advanceBy(1);
+
+        // then
+        Mockito.verify(listener).onServiceRemoved(provider, missingService);
+        Mockito.verify(listener, Mockito.times(0)).onServiceRemoved(provider, confirmedService);
+        Mockito.verify(listener, Mockito.times(1)).onServiceAdded(provider, confirmedService);
+        Assert.assertSame(confirmedService, provider.foundServices.get("UID"));
+        Assert.assertNull(provider.foundServices.get("MISSING"));
+        Assert.assertTrue(provider.unconfirmedServices.isEmpty());
+    }
+
+    @Test
+    public void testRescanRemovesCachedServicesWhichAreNotConfirmed() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setRescanWindow(500);
+        provider.start();
+        ServiceDescription cachedService = provider.unverifiedServices.get("UID");
+
+        // when
+        provider.rescan();
+        Robolectric.getUiThreadScheduler().advanceBy(499);
+        Assert.assertFalse(provider.unverifiedServices.isEmpty());
+        Robolectric.getUiThreadScheduler().advanceBy(1);
+
+        // then
+        Mockito.verify(listener).onServiceRemoved(provider, cachedService);
+        Assert.assertTrue(provider.isEmpty());
+        file.delete();
+    }
+
     @Test
     public void testInitialState() {
         FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(Robolectric.application);
@@ -347,6 +454,601 @@ public class FireTVDiscoveryProviderTest {
         Assert.assertFalse(provider.isEmpty());
     }
 
+    @Test
+    public void testDefaultDispatchWindow() {
+        Assert.assertEquals(0, provider.getDispatchWindow());
+    }
+
+    @Test
+    public void testDispatchWindowDelaysEvents() {
+        // given
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setDispatchWindow(100);
+
+        // when
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+        provider.fireTVListener.discoveryFailure();
+
+        // then
+        Mockito.verifyZeroInteractions(listener);
+        Assert.assertEquals(2, provider.dispatcher.getPendingCount());
+
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+        Mockito.verify(listener).onServiceAdded(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+        Mockito.verify(listener).onServiceDiscoveryFailed(Mockito.eq(provider),
+                Mockito.any(ServiceCommandError.class));
+        Assert.assertEquals(0, provider.dispatcher.getPendingCount());
+    }
+
+    @Test
+    public void testDispatchWindowCancelsAddedAndLostService() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setDispatchWindow(100);
+
+        // when
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        // then
+        Mockito.verifyZeroInteractions(listener);
+        Assert.assertTrue(provider.foundServices.isEmpty());
+    }
+
+    @Test
+    public void testDispatchWindowKeepsLostAndRediscoveredService() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        ServiceDescription lostService = provider.foundServices.get("UID");
+        provider.setDispatchWindow(100);
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        // then
+        ServiceDescription foundService = provider.foundServices.get("UID");
+        Assert.assertNotSame(lostService, foundService);
+        Mockito.verify(listener).onServiceRemoved(provider, lostService);
+        Mockito.verify(listener).onServiceAdded(provider, foundService);
+    }
+
+    @Test
+    public void testResetDispatchWindowFlushesPendingEvents() {
+        // given
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setDispatchWindow(100);
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // when
+        provider.setDispatchWindow(0);
+
+        // then
+        Mockito.verify(listener).onServiceAdded(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+    }
+
+    @Test
+    public void testCachedServicesAreAnnouncedOnStart() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        ArgumentCaptor<ServiceDescription> argServiceDescription = ArgumentCaptor
+                .forClass(ServiceDescription.class);
+        Assert.assertFalse(provider.isEmpty());
+        Assert.assertTrue(provider.foundServices.isEmpty());
+
+        // when
+        provider.start();
+
+        // then
+        Mockito.verify(listener).onServiceAdded(Mockito.eq(provider),
+                argServiceDescription.capture());
+        ServiceDescription serviceDescription = argServiceDescription.getValue();
+        Assert.assertEquals("UID", serviceDescription.getUUID());
+        Assert.assertEquals("CachedDevice", serviceDescription.getFriendlyName());
+        Assert.assertEquals(FireTVService.ID, serviceDescription.getServiceID());
+        Assert.assertNull(serviceDescription.getDevice());
+        Assert.assertFalse(provider.isServiceVerified(serviceDescription));
+        file.delete();
+    }
+
+    @Test
+    public void testCachedServicesReadAfterStartAreAnnounced() throws IOException {
+        // given
+        File file = createCacheFile();
+        Robolectric.getUiThreadScheduler().pause();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.start();
+        Assert.assertTrue(provider.isEmpty());
+
+        // when
+        Robolectric.getUiThreadScheduler().unPause();
+
+        // then
+        Mockito.verify(listener).onServiceAdded(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+        Assert.assertFalse(provider.isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testCachedServiceIsVerifiedByDiscovery() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.start();
+        ServiceDescription cachedService = provider.unverifiedServices.get("UID");
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+
+        // when
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+
+        // then
+        ServiceDescription foundService = provider.foundServices.get("UID");
+        Assert.assertNotSame(cachedService, foundService);
+        Mockito.verify(listener).onServiceRemoved(provider, cachedService);
+        Mockito.verify(listener).onServiceAdded(provider, foundService);
+        Assert.assertSame(remoteMediaPlayer, foundService.getDevice());
+        Assert.assertEquals("FireTVDevice", foundService.getFriendlyName());
+        Assert.assertTrue(provider.isServiceVerified(foundService));
+        Assert.assertTrue(provider.unverifiedServices.isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testServiceOfVerifiedCachedDeviceCanConnect() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.start();
+        FireTVService cachedService = new FireTVService(provider.unverifiedServices.get("UID"),
+                null);
+        cachedService.connect();
+        Assert.assertFalse(cachedService.isConnected());
+        ArgumentCaptor<ServiceDescription> argServiceDescription = ArgumentCaptor
+                .forClass(ServiceDescription.class);
+
+        // when
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // then
+        Mockito.verify(listener, Mockito.times(2)).onServiceAdded(Mockito.eq(provider),
+                argServiceDescription.capture());
+        FireTVService service = new FireTVService(argServiceDescription.getValue(), null);
+        service.connect();
+        Assert.assertTrue(service.isConnected());
+        file.delete();
+    }
+
+    @Test
+    public void testUnverifiedServicesAreRemovedAfterTimeout() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setVerifyTimeout(1000);
+        provider.start();
+        ServiceDescription cachedService = provider.unverifiedServices.get("UID");
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // then
+        Mockito.verify(listener).onServiceRemoved(provider, cachedService);
+        Assert.assertTrue(provider.isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testStopSavesFoundServices() throws IOException {
+        // given
+        File file = File.createTempFile("firetv", ".cache");
+        file.delete();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // when
+        provider.stop();
+
+        // then
+        FireTVDiscoveryProvider restored = new FireTVDiscoveryProvider(controller, file);
+        Assert.assertEquals(1, restored.unverifiedServices.size());
+        Assert.assertEquals("FireTVDevice",
+                restored.unverifiedServices.get("UID").getFriendlyName());
+        file.delete();
+    }
+
+    @Test
+    public void testResetClearsCacheFile() throws IOException {
+        // given
+        File file = createCacheFile();
+        FireTVDiscoveryProvider provider = new FireTVDiscoveryProvider(controller, file);
+
+        // when
+        provider.reset();
+
+        // then
+        Assert.assertTrue(provider.isEmpty());
+        Assert.assertTrue(new FireTVDiscoveryProvider(controller, file).isEmpty());
+        file.delete();
+    }
+
+    @Test
+    public void testLostServiceIsKeptDuringGracePeriod() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setLostGracePeriod(1000);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        ServiceDescription serviceDescription = provider.foundServices.get("UID");
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(999);
+
+        // then
+        Mockito.verify(listener, Mockito.times(0)).onServiceRemoved(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+        Assert.assertSame(serviceDescription, provider.foundServices.get("UID"));
+
+        Robolectric.getUiThreadScheduler().advanceBy(1);
+        Mockito.verify(listener).onServiceRemoved(provider, serviceDescription);
+        Assert.assertTrue(provider.foundServices.isEmpty());
+        Assert.assertTrue(provider.flapStates.isEmpty());
+    }
+
+    @Test
+    public void testFlappingServiceIsNotReported() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setLostGracePeriod(1000);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        ServiceDescription serviceDescription = provider.foundServices.get("UID");
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(500);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // then
+        Mockito.verify(listener, Mockito.times(1)).onServiceAdded(provider, serviceDescription);
+        Mockito.verify(listener, Mockito.times(0)).onServiceRemoved(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+        Assert.assertSame(serviceDescription, provider.foundServices.get("UID"));
+        Assert.assertEquals(1, provider.flapStates.get("UID").flapCount);
+    }
+
+    @Test
+    public void testFlappingServiceGetsLongerGracePeriod() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setLostGracePeriod(1000);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(2999);
+
+        // then
+        Assert.assertFalse(provider.foundServices.isEmpty());
+        Robolectric.getUiThreadScheduler().advanceBy(1);
+        Assert.assertTrue(provider.foundServices.isEmpty());
+        Mockito.verify(listener).onServiceRemoved(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+    }
+
+    @Test
+    public void testStableServiceResetsFlapCounter() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        provider.setLostGracePeriod(100);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        Assert.assertEquals(1, provider.flapStates.get("UID").flapCount);
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(
+                100 * FireTVDiscoveryProvider.STABLE_PERIOD_FACTOR);
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        // then
+        Assert.assertTrue(provider.foundServices.isEmpty());
+    }
+
+    @Test
+    public void testDutyCycleKeepsScanningWhileDevicesAreFound() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.AGGRESSIVE, provider.scanPhase);
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(10000);
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.AGGRESSIVE, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(0)).stop();
+        Assert.assertEquals(1, provider.foundServices.size());
+    }
+
+    @Test
+    public void testDutyCycleStopsDiscoveryWhenNoDevicesAreFound() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.IDLE, provider.scanPhase);
+        Mockito.verify(controller).stop();
+    }
+
+    @Test
+    public void testDutyCycleRunsScanWindowAfterIdleInterval() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(5000);
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.WINDOW, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(2)).start(provider.fireTVListener);
+    }
+
+    @Test
+    public void testDutyCycleScansContinuouslyAfterDeviceIsFoundInScanWindow() {
+        // given
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        Robolectric.getUiThreadScheduler().advanceBy(6000);
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.WINDOW, provider.scanPhase);
+
+        // when
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+        Robolectric.getUiThreadScheduler().advanceBy(10000);
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.AGGRESSIVE, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(1)).stop();
+        Assert.assertEquals(1, provider.foundServices.size());
+        Mockito.verify(listener, Mockito.times(1)).onServiceAdded(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+    }
+
+    @Test
+    public void testDutyCycleBacksOffWhenLastDeviceIsLost() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        ServiceDescription serviceDescription = provider.foundServices.get("UID");
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // then
+        Mockito.verify(listener).onServiceRemoved(provider, serviceDescription);
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.IDLE, provider.scanPhase);
+        Mockito.verify(controller).stop();
+    }
+
+    @Test
+    public void testDutyCycleRescanScansContinuously() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // when
+        provider.rescan();
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.AGGRESSIVE, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(1)).start(provider.fireTVListener);
+        Mockito.verify(controller, Mockito.times(0)).stop();
+        Assert.assertEquals(1, provider.foundServices.size());
+    }
+
+    @Test
+    public void testDutyCycleAddListenerScansContinuously() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // when
+        provider.addListener(Mockito.mock(DiscoveryProviderListener.class));
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.AGGRESSIVE, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(2)).start(provider.fireTVListener);
+    }
+
+    @Test
+    public void testStopWithDutyCycle() {
+        // given
+        provider.setDutyCycle(1000, 500, 5000);
+        provider.setDutyCycleEnabled(true);
+        provider.start();
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        // when
+        provider.stop();
+        Robolectric.getUiThreadScheduler().advanceBy(10000);
+
+        // then
+        Assert.assertEquals(FireTVDiscoveryProvider.ScanPhase.CONTINUOUS, provider.scanPhase);
+        Mockito.verify(controller, Mockito.times(1)).start(provider.fireTVListener);
+        Mockito.verify(controller, Mockito.times(1)).stop();
+    }
+
+    @Test
+    public void testInitialSnapshot() {
+        FireTVDiscoveryProvider.Snapshot snapshot = provider.getSnapshot();
+        Assert.assertEquals(0, snapshot.getGeneration());
+        Assert.assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    public void testSnapshotIsPublishedWhenServiceIsAdded() {
+        // given
+        FireTVDiscoveryProvider.Snapshot initialSnapshot = provider.getSnapshot();
+
+        // when
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // then
+        FireTVDiscoveryProvider.Snapshot snapshot = provider.getSnapshot();
+        Assert.assertTrue(snapshot.isNewerThan(initialSnapshot.getGeneration()));
+        Assert.assertEquals(1, snapshot.size());
+        Assert.assertSame(provider.foundServices.get("UID"), snapshot.getService("UID"));
+        Assert.assertTrue(initialSnapshot.isEmpty());
+    }
+
+    @Test
+    public void testSnapshotIsNotChangedWhenServiceIsUpdated() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        FireTVDiscoveryProvider.Snapshot snapshot = provider.getSnapshot();
+
+        // when
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+
+        // then
+        Assert.assertSame(snapshot, provider.getSnapshot());
+    }
+
+    @Test
+    public void testSnapshotIsPublishedWhenServiceIsLost() {
+        // given
+        RemoteMediaPlayer remoteMediaPlayer = mockRemoteMediaPlayer();
+        provider.fireTVListener.playerDiscovered(remoteMediaPlayer);
+        long generation = provider.getSnapshot().getGeneration();
+
+        // when
+        provider.fireTVListener.playerLost(remoteMediaPlayer);
+
+        // then
+        Assert.assertEquals(generation + 1, provider.getSnapshot().getGeneration());
+        Assert.assertTrue(provider.getSnapshot().isEmpty());
+    }
+
+    @Test
+    public void testSnapshotIsImmutable() {
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+        try {
+            provider.getSnapshot().getServices().clear();
+            Assert.fail("snapshot should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        Assert.assertEquals(1, provider.getSnapshot().size());
+    }
+
+    @Test
+    public void testSnapshotIsPublishedOnStop() {
+        provider.start();
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        provider.stop();
+
+        Assert.assertTrue(provider.getSnapshot().isEmpty());
+        Assert.assertEquals(2, provider.getSnapshot().getGeneration());
+    }
+
+    @Test
+    public void testCallbackExecutorDeliversDiscoveryEvents() {
+        // given
+        final List<Runnable> commands = new ArrayList<>();
+        provider.setCallbackExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                commands.add(command);
+            }
+        });
+        DiscoveryProviderListener listener = Mockito.mock(DiscoveryProviderListener.class);
+        provider.addListener(listener);
+
+        // when
+        provider.fireTVListener.playerDiscovered(mockRemoteMediaPlayer());
+
+        // then
+        Mockito.verifyZeroInteractions(listener);
+        Assert.assertEquals(1, commands.size());
+        commands.get(0).run();
+        Mockito.verify(listener).onServiceAdded(Mockito.eq(provider),
+                Mockito.any(ServiceDescription.class));
+    }
+
+    @Test
+    public void testSetNullCallbackExecutorRestoresMainThread() {
+        provider.setCallbackExecutor(FireTVCallbackExecutors.direct());
+        provider.setCallbackExecutor(null);
+        Assert.assertSame(FireTVCallbackExecutors.mainThread(), provider.getCallbackExecutor());
+    }
+
+    private File createCacheFile() throws IOException {
+        File file = File.createTempFile("firetv", ".cache");
+        new FireTVDeviceCache(file).save(Arrays.asList(new FireTVDeviceCache.Entry("UID",
+                "CachedDevice", System.currentTimeMillis())));
+        return file;
+    }
+
     private RemoteMediaPlayer mockRemoteMediaPlayer() {
         RemoteMediaPlayer player = Mockito.mock(RemoteMediaPlayer.class);
         Mockito.when(player.getUniqueIdentifier()).thenReturn("UID");
@@ -0,0 +1,202 @@
+/*
+ * FireTVGroupControllerTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
+import com.amazon.whisperplay.fling.media.service.CustomMediaPlayer;
+import com.connectsdk.service.config.ServiceConfig;
+import com.connectsdk.service.config.ServiceDescription;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVGroupControllerTest {
+
+    private RemoteMediaPlayer firstPlayer;
+
+    private RemoteMediaPlayer secondPlayer;
+
+    private FireTVService firstService;
+
+    private FireTVService secondService;
+
+    private FireTVGroupController controller;
+
+    @Before
+    public void setUp() {
+        firstPlayer = Mockito.mock(RemoteMediaPlayer.class);
+        secondPlayer = Mockito.mock(RemoteMediaPlayer.class);
+        firstService = createService(firstPlayer);
+        secondService = createService(secondPlayer);
+        controller = new FireTVGroupController(Arrays.asList(firstService, secondService));
+    }
+
+    @Test
+    public void testMembers() {
+        controller.addMember(firstService);
+        Assert.assertEquals(Arrays.asList(firstService, secondService), controller.getMembers());
+
+        controller.removeMember(firstService);
+        Assert.assertEquals(Arrays.asList(secondService), controller.getMembers());
+    }
+
+    @Test
+    public void testCommandWithoutMembers() {
+        FireTVGroupController.GroupResultListener listener =
+                Mockito.mock(FireTVGroupController.GroupResultListener.class);
+        ArgumentCaptor<FireTVGroupController.GroupResult> argResult =
+                ArgumentCaptor.forClass(FireTVGroupController.GroupResult.class);
+
+        new FireTVGroupController().play(listener);
+
+        Mockito.verify(listener).onComplete(argResult.capture());
+        Assert.assertTrue(argResult.getValue().getResults().isEmpty());
+        Assert.assertTrue(argResult.getValue().isSuccessful());
+    }
+
+    @Test
+    public void testPlayIsSentToAllMembersBeforeAcknowledgements() {
+        FireTVServiceTest.MockAsyncFutureDeferred<Void> firstFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Void>();
+        FireTVServiceTest.MockAsyncFutureDeferred<Void> secondFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Void>();
+        Mockito.when(firstPlayer.play()).thenReturn(firstFuture);
+        Mockito.when(secondPlayer.play()).thenReturn(secondFuture);
+        FireTVGroupController.GroupResultListener listener =
+                Mockito.mock(FireTVGroupController.GroupResultListener.class);
+
+        controller.play(listener);
+
+        Mockito.verify(firstPlayer).play();
+        Mockito.verify(secondPlayer).play();
+        Mockito.verifyZeroInteractions(listener);
+
+        Robolectric.getUiThreadScheduler().advanceBy(30);
+        secondFuture.complete(null);
+        Mockito.verifyZeroInteractions(listener);
+        Robolectric.getUiThreadScheduler().advanceBy(20);
+        firstFuture.complete(null);
+
+        ArgumentCaptor<FireTVGroupController.GroupResult> argResult =
+                ArgumentCaptor.forClass(FireTVGroupController.GroupResult.class);
+        Mockito.verify(listener).onComplete(argResult.capture());
+        FireTVGroupController.GroupResult result = argResult.getValue();
+        Assert.assertTrue(result.isSuccessful());
+        Assert.assertEquals(2, result.getSucceeded().size());
+        Assert.assertSame(firstService, result.getResults().get(0).getService());
+        Assert.assertEquals(50, result.getResults().get(0).getLatency());
+        Assert.assertSame(secondService, result.getResults().get(1).getService());
+        Assert.assertEquals(30, result.getResults().get(1).getLatency());
+        Assert.assertEquals(50, result.getMaxLatency());
+    }
+
+    @Test
+    public void testLatencyDoesNotIncludeCallbackExecutorDelay() {
+        final List<Runnable> callbacks = new ArrayList<Runnable>();
+        Executor executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                callbacks.add(command);
+            }
+        };
+        firstService.setCallbackExecutor(executor);
+        secondService.setCallbackExecutor(executor);
+        FireTVServiceTest.MockAsyncFutureDeferred<Void> firstFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Void>();
+        Mockito.when(firstPlayer.play()).thenReturn(firstFuture);
+        Mockito.when(secondPlayer.play()).thenReturn(
+                new FireTVServiceTest.MockAsyncFuture<Void>(null));
+        FireTVGroupController.GroupResultListener listener =
+                Mockito.mock(FireTVGroupController.GroupResultListener.class);
+
+        controller.play(listener);
+        Robolectric.getUiThreadScheduler().advanceBy(40);
+        firstFuture.complete(null);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+
+        ArgumentCaptor<FireTVGroupController.GroupResult> argResult =
+                ArgumentCaptor.forClass(FireTVGroupController.GroupResult.class);
+        Mockito.verify(listener).onComplete(argResult.capture());
+        Assert.assertEquals(40, argResult.getValue().getResults().get(0).getLatency());
+        Assert.assertEquals(0, argResult.getValue().getResults().get(1).getLatency());
+    }
+
+    @Test
+    public void testPauseWithFailedMember() {
+        Mockito.when(firstPlayer.pause()).thenReturn(
+                new FireTVServiceTest.MockAsyncFuture<Void>(null));
+        Mockito.when(secondPlayer.pause()).thenThrow(new IllegalStateException());
+        FireTVGroupController.GroupResultListener listener =
+                Mockito.mock(FireTVGroupController.GroupResultListener.class);
+        ArgumentCaptor<FireTVGroupController.GroupResult> argResult =
+                ArgumentCaptor.forClass(FireTVGroupController.GroupResult.class);
+
+        controller.pause(listener);
+
+        Mockito.verify(listener).onComplete(argResult.capture());
+        FireTVGroupController.GroupResult result = argResult.getValue();
+        Assert.assertFalse(result.isSuccessful());
+        Assert.assertEquals(1, result.getSucceeded().size());
+        Assert.assertEquals(1, result.getFailed().size());
+        Assert.assertSame(secondService, result.getFailed().get(0).getService());
+        Assert.assertNotNull(result.getFailed().get(0).getError());
+    }
+
+    @Test
+    public void testSeekIsSentToAllMembers() {
+        Mockito.when(firstPlayer.seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 1000))
+                .thenReturn(new FireTVServiceTest.MockAsyncFuture<Void>(null));
+        Mockito.when(secondPlayer.seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 1000))
+                .thenReturn(new FireTVServiceTest.MockAsyncFuture<Void>(null));
+        FireTVGroupController.GroupResultListener listener =
+                Mockito.mock(FireTVGroupController.GroupResultListener.class);
+
+        controller.seek(1000, listener);
+
+        Mockito.verify(firstPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 1000);
+        Mockito.verify(secondPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 1000);
+        Mockito.verify(listener).onComplete(Mockito.any(FireTVGroupController.GroupResult.class));
+    }
+
+    private FireTVService createService(RemoteMediaPlayer player) {
+        ServiceDescription serviceDescription = Mockito.mock(ServiceDescription.class);
+        Mockito.when(serviceDescription.getDevice()).thenReturn(player);
+        return new FireTVService(serviceDescription, Mockito.mock(ServiceConfig.class));
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * FireTVGroupSynchronizerTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import android.os.SystemClock;
+
+import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
+import com.amazon.whisperplay.fling.media.service.CustomMediaPlayer;
+import com.amazon.whisperplay.fling.media.service.MediaPlayerStatus;
+import com.connectsdk.service.config.ServiceConfig;
+import com.connectsdk.service.config.ServiceDescription;
+
+import junit.framework.Assert;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVGroupSynchronizerTest {
+
+    private RemoteMediaPlayer[] players;
+
+    private FireTVService[] services;
+
+    private FireTVGroupSynchronizer synchronizer;
+
+    @Before
+    public void setUp() {
+        players = new RemoteMediaPlayer[3];
+        services = new FireTVService[3];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = Mockito.mock(RemoteMediaPlayer.class);
+            services[i] = createService(players[i]);
+            Mockito.when(players[i].seek(Mockito.any(CustomMediaPlayer.PlayerSeekMode.class),
+                    Mockito.anyLong())).thenReturn(new FireTVServiceTest.MockAsyncFuture<Void>(null));
+        }
+        synchronizer = new FireTVGroupSynchronizer(
+                new FireTVGroupController(Arrays.asList(services)));
+    }
+
+    @After
+    public void tearDown() {
+        synchronizer.stop();
+    }
+
+    @Test
+    public void testMedian() {
+        Assert.assertEquals(2, FireTVGroupSynchronizer.median(new long[] {3, 1, 2}));
+        Assert.assertEquals(15, FireTVGroupSynchronizer.median(new long[] {20, 10}));
+    }
+
+    @Test
+    public void testLaggingMemberIsCorrected() {
+        mockPosition(0, 10000);
+        mockPosition(1, 10000);
+        mockPosition(2, 9500);
+
+        synchronizer.start();
+
+        Mockito.verify(players[2]).seek(CustomMediaPlayer.PlayerSeekMode.Relative, 500);
+        Mockito.verify(players[0], Mockito.never()).seek(
+                Mockito.any(CustomMediaPlayer.PlayerSeekMode.class), Mockito.anyLong());
+        Mockito.verify(players[1], Mockito.never()).seek(
+                Mockito.any(CustomMediaPlayer.PlayerSeekMode.class), Mockito.anyLong());
+        Assert.assertEquals(-500, synchronizer.getDrift(services[2]));
+    }
+
+    @Test
+    public void testLeadingMemberIsCorrected() {
+        mockPosition(0, 10000);
+        mockPosition(1, 10300);
+        mockPosition(2, 10000);
+
+        synchronizer.start();
+
+        Mockito.verify(players[1]).seek(CustomMediaPlayer.PlayerSeekMode.Relative, -300);
+    }
+
+    @Test
+    public void testDriftWithinThresholdIsNotCorrected() {
+        mockPosition(0, 10000);
+        mockPosition(1, 10050);
+        mockPosition(2, 9950);
+
+        synchronizer.start();
+
+        for (RemoteMediaPlayer player : players) {
+            Mockito.verify(player, Mockito.never()).seek(
+                    Mockito.any(CustomMediaPlayer.PlayerSeekMode.class), Mockito.anyLong());
+        }
+    }
+
+    @Test
+    public void testRoundTripTimeIsCompensated() {
+        // given
+        FireTVServiceTest.MockAsyncFutureDeferred<Long> slowFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Long>();
+        mockPosition(0, 10000);
+        mockPosition(1, 10000);
+        Mockito.when(players[2].getPosition()).thenReturn(slowFuture);
+        setPlaying();
+
+        // when
+        synchronizer.start();
+        Robolectric.getUiThreadScheduler().advanceBy(400);
+        // position was taken in the middle of the round trip
+        slowFuture.complete(10200L);
+
+        // then
+        Assert.assertEquals(400, synchronizer.getRoundTripTime(services[2]));
+        Assert.assertEquals(0, synchronizer.getDrift(services[2]));
+        Mockito.verify(players[2], Mockito.never()).seek(
+                Mockito.any(CustomMediaPlayer.PlayerSeekMode.class), Mockito.anyLong());
+    }
+
+    @Test
+    public void testRoundTripIsNotMeasuredOnSharedRequest() {
+        // given
+        FireTVServiceTest.MockAsyncFutureDeferred<Long> pendingFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Long>();
+        FireTVServiceTest.MockAsyncFutureDeferred<Long> syncFuture =
+                new FireTVServiceTest.MockAsyncFutureDeferred<Long>();
+        mockPosition(0, 10000);
+        mockPosition(1, 10000);
+        Mockito.when(players[2].getPosition()).thenReturn(pendingFuture, syncFuture);
+        services[2].getPosition(null);
+        Robolectric.getUiThreadScheduler().advanceBy(300);
+
+        // when
+        synchronizer.start();
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+        syncFuture.complete(10000L);
+
+        // then
+        Mockito.verify(players[2], Mockito.times(2)).getPosition();
+        Assert.assertEquals(100, synchronizer.getRoundTripTime(services[2]));
+    }
+
+    @Test
+    public void testSyncIsRepeated() {
+        mockPosition(0, 10000);
+        mockPosition(1, 10000);
+        mockPosition(2, 10000);
+        synchronizer.setSyncInterval(1000);
+
+        synchronizer.start();
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        Mockito.verify(players[0], Mockito.times(2)).getPosition();
+    }
+
+    @Test
+    public void testStopReleasesSubscriptions() {
+        mockPosition(0, 10000);
+        mockPosition(1, 10000);
+        mockPosition(2, 10000);
+        synchronizer.start();
+
+        synchronizer.stop();
+
+        Assert.assertFalse(synchronizer.isRunning());
+        for (RemoteMediaPlayer player : players) {
+            Mockito.verify(player).removeStatusListener(
+                    Mockito.any(CustomMediaPlayer.StatusListener.class));
+        }
+        Assert.assertTrue(services[0].subscribePosition(null).getListeners().isEmpty());
+    }
+
+    @Test
+    public void testPositionPushIsTimestampedBeforeCallbackExecutor() {
+        // given
+        final List<Runnable> callbacks = new ArrayList<Runnable>();
+        services[0].setCallbackExecutor(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                callbacks.add(command);
+            }
+        });
+        setPlaying();
+        FireTVGroupSynchronizer.Member member = new FireTVGroupSynchronizer.Member(services[0]);
+        member.subscribe();
+        ArgumentCaptor<CustomMediaPlayer.StatusListener> statusListener =
+                ArgumentCaptor.forClass(CustomMediaPlayer.StatusListener.class);
+        Mockito.verify(players[0]).addStatusListener(statusListener.capture());
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+
+        // when
+        statusListener.getValue().onStatusChange(status, 5000);
+        Robolectric.getUiThreadScheduler().advanceBy(200);
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+
+        // then
+        Assert.assertEquals(5200, member.estimate(SystemClock.elapsedRealtime()));
+        member.release();
+    }
+
+    @Test
+    public void testMemberSubscriptionDoesNotKeepCachedStateForever() {
+        // given
+        Mockito.when(players[0].getDuration()).thenReturn(
+                new FireTVServiceTest.MockAsyncFuture<Long>(60000L));
+        services[0].getDuration(null);
+        FireTVGroupSynchronizer.Member member = new FireTVGroupSynchronizer.Member(services[0]);
+        member.subscribe();
+
+        // when
+        Robolectric.getUiThreadScheduler().advanceBy(
+                FireTVService.DEFAULT_STATE_CACHE_TIMEOUT + 1);
+        services[0].getDuration(null);
+
+        // then
+        Mockito.verify(players[0], Mockito.times(2)).getDuration();
+        member.release();
+    }
+
+    private void mockPosition(int index, long position) {
+        Mockito.when(players[index].getPosition()).thenReturn(
+                new FireTVServiceTest.MockAsyncFuture<Long>(position));
+    }
+
+    private void setPlaying() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        for (FireTVService service : services) {
+            service.playbackState.updateStatus(status, SystemClock.elapsedRealtime());
+        }
+    }
+
+    private FireTVService createService(RemoteMediaPlayer player) {
+        ServiceDescription serviceDescription = Mockito.mock(ServiceDescription.class);
+        Mockito.when(serviceDescription.getDevice()).thenReturn(player);
+        return new FireTVService(serviceDescription, Mockito.mock(ServiceConfig.class));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * FireTVMediaInfoCacheTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.MediaInfo;
+
+import junit.framework.Assert;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVMediaInfoCacheTest {
+
+    private FireTVMediaInfoCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new FireTVMediaInfoCache();
+    }
+
+    @Test
+    public void testGetShouldIgnoreOtherValues() throws JSONException {
+        MediaInfo mediaInfo = cache.get("url", "{\"noreplay\":true,\"tracks\":[{\"kind\":"
+                + "\"subtitles\",\"label\":\"a } ] \\\" b\"}],\"position\":-1.5,\"extra\":null,"
+                + "\"title\":\"title\",\"type\":\"video\\/mp4\",\"poster\":\"http:\\/\\/icon\"}");
+
+        Assert.assertEquals("url", mediaInfo.getUrl());
+        Assert.assertEquals("title", mediaInfo.getTitle());
+        Assert.assertEquals("video/mp4", mediaInfo.getMimeType());
+        Assert.assertEquals("http://icon", mediaInfo.getImages().get(0).getUrl());
+        Assert.assertNull(mediaInfo.getDescription());
+    }
+
+    @Test
+    public void testGetWithMissingFields() throws JSONException {
+        MediaInfo mediaInfo = cache.get("url", " { } ");
+
+        Assert.assertNull(mediaInfo.getTitle());
+        Assert.assertNull(mediaInfo.getDescription());
+        Assert.assertNull(mediaInfo.getMimeType());
+        Assert.assertNull(mediaInfo.getImages());
+    }
+
+    @Test
+    public void testGetShouldDecodeEscapes() throws JSONException {
+        MediaInfo mediaInfo = cache.get("url",
+                "{'title':'it\\'s \\\"a\\\"\\n\\u00e9','description':\"plain\"}");
+
+        Assert.assertEquals("it's \"a\"\n\u00e9", mediaInfo.getTitle());
+        Assert.assertEquals("plain", mediaInfo.getDescription());
+    }
+
+    @Test
+    public void testSameMetadataShouldNotBeParsedAgain() throws JSONException {
+        String metadata = "{\"title\":\"title\",\"type\":\"video/mp4\"}";
+        MediaInfo mediaInfo = cache.get("url", metadata);
+
+        MediaInfo anotherMediaInfo = cache.get("url", new String(metadata));
+
+        Assert.assertNotSame(mediaInfo, anotherMediaInfo);
+        Assert.assertSame(mediaInfo.getTitle(), anotherMediaInfo.getTitle());
+    }
+
+    @Test
+    public void testChangedSourceShouldBeApplied() throws JSONException {
+        String metadata = "{\"title\":\"title\"}";
+        cache.get("url", metadata);
+
+        MediaInfo mediaInfo = cache.get("another url", metadata);
+
+        Assert.assertEquals("another url", mediaInfo.getUrl());
+        Assert.assertEquals("title", mediaInfo.getTitle());
+    }
+
+    @Test(expected = JSONException.class)
+    public void testGetWithMalformedMetadata() throws JSONException {
+        cache.get("url", "{\"title\":\"title\"");
+    }
+}
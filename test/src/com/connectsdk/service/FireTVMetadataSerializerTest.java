@@ -0,0 +1,106 @@
+/*
+ * FireTVMetadataSerializerTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.MediaInfo;
+import com.connectsdk.core.SubtitleInfo;
+
+import junit.framework.Assert;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVMetadataSerializerTest {
+
+    private FireTVMetadataSerializer serializer;
+
+    @Before
+    public void setUp() {
+        serializer = new FireTVMetadataSerializer();
+    }
+
+    @Test
+    public void testSerializeAllFields() {
+        MediaInfo mediaInfo = new MediaInfo.Builder("url", "video/mp4")
+                .setTitle("title")
+                .setDescription("description")
+                .setIcon("http://icon")
+                .setSubtitleInfo(new SubtitleInfo.Builder("http://subtitle")
+                        .setLanguage("en")
+                        .build())
+                .build();
+
+        Assert.assertEquals("{\"title\":\"title\",\"description\":\"description\","
+                + "\"type\":\"video\\/mp4\",\"poster\":\"http:\\/\\/icon\",\"noreplay\":true,"
+                + "\"tracks\":[{\"kind\":\"subtitles\",\"src\":\"http:\\/\\/subtitle\","
+                + "\"label\":\"\",\"srclang\":\"en\"}]}", serializer.serialize(mediaInfo));
+    }
+
+    @Test
+    public void testSerializeShouldEscapeStrings() throws JSONException {
+        MediaInfo mediaInfo = new MediaInfo.Builder("url", "mime")
+                .setTitle("\"quoted\" \\ line\nbreak\u0001")
+                .build();
+
+        String metadata = serializer.serialize(mediaInfo);
+
+        Assert.assertEquals("{\"title\":\"\\\"quoted\\\" \\\\ line\\nbreak\\u0001\","
+                + "\"type\":\"mime\",\"noreplay\":true}", metadata);
+        Assert.assertEquals(mediaInfo.getTitle(), new JSONObject(metadata).getString("title"));
+    }
+
+    @Test
+    public void testSameMediaInfoShouldReuseMetadata() {
+        MediaInfo mediaInfo = new MediaInfo.Builder("url", "mime").setTitle("title").build();
+
+        Assert.assertSame(serializer.serialize(mediaInfo), serializer.serialize(mediaInfo));
+    }
+
+    @Test
+    public void testChangedMediaInfoShouldBeSerializedAgain() {
+        MediaInfo mediaInfo = new MediaInfo.Builder("url", "mime").setTitle("title").build();
+        String metadata = serializer.serialize(mediaInfo);
+
+        mediaInfo.setTitle("another title");
+
+        Assert.assertNotSame(metadata, serializer.serialize(mediaInfo));
+        Assert.assertEquals("{\"title\":\"another title\",\"type\":\"mime\",\"noreplay\":true}",
+                serializer.serialize(mediaInfo));
+    }
+
+    @Test
+    public void testEqualMediaInfoShouldNotReuseMetadata() {
+        MediaInfo mediaInfo = new MediaInfo.Builder("url", "mime").setTitle("title").build();
+        MediaInfo anotherMediaInfo = new MediaInfo.Builder("url", "mime").setTitle("title").build();
+
+        String metadata = serializer.serialize(mediaInfo);
+        String anotherMetadata = serializer.serialize(anotherMediaInfo);
+
+        Assert.assertNotSame(metadata, anotherMetadata);
+        Assert.assertEquals(metadata, anotherMetadata);
+    }
+}
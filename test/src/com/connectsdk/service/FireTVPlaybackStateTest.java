@@ -0,0 +1,148 @@
+/*
+ * FireTVPlaybackStateTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.amazon.whisperplay.fling.media.service.MediaPlayerStatus;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVPlaybackStateTest {
+
+    private FireTVPlaybackState state;
+
+    @Before
+    public void setUp() {
+        state = new FireTVPlaybackState();
+    }
+
+    @Test
+    public void testInitialState() {
+        Assert.assertNull(state.getStatus(0, Long.MAX_VALUE));
+        Assert.assertFalse(state.hasPosition(0, Long.MAX_VALUE));
+        Assert.assertFalse(state.hasDuration(0, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testPositionIsInterpolatedWhilePlaying() {
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Playing), 1000L, 10000L);
+
+        Assert.assertEquals(1000L, state.getPosition(10000L));
+        Assert.assertEquals(1750L, state.getPosition(10750L));
+    }
+
+    @Test
+    public void testInterpolatedPositionIsClampedToDuration() {
+        state.updateDuration(2000L, 10000L);
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Playing), 1000L, 10000L);
+
+        Assert.assertEquals(1750L, state.getPosition(10750L));
+        Assert.assertEquals(2000L, state.getPosition(15000L));
+    }
+
+    @Test
+    public void testPositionIsNotInterpolatedWhilePaused() {
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Paused), 1000L, 10000L);
+
+        Assert.assertEquals(1000L, state.getPosition(10750L));
+    }
+
+    @Test
+    public void testPositionIsFrozenWhenPlaybackPaused() {
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Playing), 1000L, 10000L);
+        state.updateStatus(mockStatus(MediaPlayerStatus.MediaState.Paused), 10500L);
+
+        Assert.assertEquals(1500L, state.getPosition(12000L));
+    }
+
+    @Test
+    public void testStatusIsStale() {
+        MediaPlayerStatus status = mockStatus(MediaPlayerStatus.MediaState.Playing);
+        state.updateStatus(status, 10000L);
+
+        Assert.assertSame(status, state.getStatus(10500L, 1000L));
+        Assert.assertNull(state.getStatus(11001L, 1000L));
+    }
+
+    @Test
+    public void testDurationIsDroppedWhenMediaChanged() {
+        state.updateDuration(5000L, 10000L);
+        Assert.assertTrue(state.hasDuration(10000L, 1000L));
+
+        state.updateStatus(mockStatus(MediaPlayerStatus.MediaState.PreparingMedia), 10000L);
+
+        Assert.assertFalse(state.hasDuration(10000L, 1000L));
+    }
+
+    @Test
+    public void testInvalidate() {
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Playing), 1000L, 10000L);
+        state.updateDuration(5000L, 10000L);
+
+        state.invalidate();
+
+        Assert.assertNull(state.getStatus(10000L, Long.MAX_VALUE));
+        Assert.assertFalse(state.hasPosition(10000L, Long.MAX_VALUE));
+        Assert.assertTrue(state.hasDuration(10000L, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testReset() {
+        state.update(mockStatus(MediaPlayerStatus.MediaState.Playing), 1000L, 10000L);
+        state.updateDuration(5000L, 10000L);
+
+        state.reset();
+
+        Assert.assertNull(state.getStatus(10000L, Long.MAX_VALUE));
+        Assert.assertFalse(state.hasPosition(10000L, Long.MAX_VALUE));
+        Assert.assertFalse(state.hasDuration(10000L, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testVolumeIsTakenFromStatus() {
+        MediaPlayerStatus status = mockStatus(MediaPlayerStatus.MediaState.Playing);
+        Mockito.when(status.isVolumeSet()).thenReturn(true);
+        Mockito.when(status.getVolume()).thenReturn(0.25);
+        Mockito.when(status.isMuteSet()).thenReturn(true);
+        Mockito.when(status.isMute()).thenReturn(true);
+
+        state.updateStatus(status, 10000L);
+        state.reset();
+
+        Assert.assertTrue(state.hasVolume(10000L, Long.MAX_VALUE));
+        Assert.assertEquals(0.25f, state.getVolume());
+        Assert.assertTrue(state.hasMute(10000L, Long.MAX_VALUE));
+        Assert.assertTrue(state.isMute());
+    }
+
+    private MediaPlayerStatus mockStatus(MediaPlayerStatus.MediaState state) {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(state);
+        return status;
+    }
+}
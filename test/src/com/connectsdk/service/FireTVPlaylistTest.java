@@ -0,0 +1,203 @@
+/*
+ * FireTVPlaylistTest
+ * Connect SDK
+ *
+ * Copyright (c) 2015 LG Electronics.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.connectsdk.service;
+
+import com.connectsdk.core.MediaInfo;
+import com.connectsdk.service.capability.PlaylistControl;
+
+import junit.framework.Assert;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(manifest=Config.NONE)
+public class FireTVPlaylistTest {
+
+    private FireTVPlaylist playlist;
+
+    private List<MediaInfo> items;
+
+    @Before
+    public void setUp() {
+        playlist = new FireTVPlaylist(new Random(1));
+        items = new ArrayList<MediaInfo>();
+        for (int i = 0; i < 4; i++) {
+            items.add(new MediaInfo.Builder("url" + i, "video/mp4").build());
+        }
+    }
+
+    @Test
+    public void testInitialState() {
+        Assert.assertTrue(playlist.isEmpty());
+        Assert.assertEquals(-1, playlist.getCurrentIndex());
+        Assert.assertNull(playlist.getNext(false));
+        Assert.assertNull(playlist.getPrevious());
+        Assert.assertFalse(playlist.advancesOnFinish());
+    }
+
+    @Test
+    public void testNormalModeShouldStopAtEnds() {
+        playlist.setItems(items, 2);
+
+        Assert.assertSame(items.get(3), moveToNext(true));
+        Assert.assertNull(moveToNext(true));
+        Assert.assertSame(items.get(2), moveToPrevious());
+        Assert.assertEquals(2, playlist.getCurrentIndex());
+    }
+
+    @Test
+    public void testPreviousAtFirstItemShouldFail() {
+        playlist.setItems(items, 0);
+
+        Assert.assertNull(moveToPrevious());
+        Assert.assertEquals(0, playlist.getCurrentIndex());
+    }
+
+    @Test
+    public void testRepeatAllShouldWrap() {
+        playlist.setPlayMode(PlaylistControl.PlayMode.RepeatAll);
+        playlist.setItems(items, 3);
+
+        Assert.assertSame(items.get(0), moveToNext(true));
+        Assert.assertSame(items.get(3), moveToPrevious());
+    }
+
+    @Test
+    public void testRepeatOneShouldRepeatFinishedItem() {
+        playlist.setPlayMode(PlaylistControl.PlayMode.RepeatOne);
+        playlist.setItems(items, 1);
+
+        Assert.assertSame(items.get(1), playlist.peekNext(true));
+        Assert.assertSame(items.get(1), moveToNext(true));
+        Assert.assertSame(items.get(2), moveToNext(false));
+    }
+
+    @Test
+    public void testShuffleShouldPlayEachItemOnce() {
+        playlist.setPlayMode(PlaylistControl.PlayMode.Shuffle);
+        playlist.setItems(items, 2);
+        Set<MediaInfo> played = new HashSet<MediaInfo>();
+        played.add(items.get(playlist.getCurrentIndex()));
+
+        MediaInfo item;
+        while ((item = moveToNext(true)) != null) {
+            Assert.assertTrue(played.add(item));
+        }
+
+        Assert.assertEquals(items.size(), played.size());
+    }
+
+    @Test
+    public void testShuffleShouldStartFromRequestedItem() {
+        playlist.setPlayMode(PlaylistControl.PlayMode.Shuffle);
+        playlist.setItems(items, 2);
+
+        Assert.assertEquals(2, playlist.getCurrentIndex());
+        Assert.assertSame(items.get(2), moveTo(2));
+    }
+
+    @Test
+    public void testChangingPlayModeShouldKeepCurrentItem() {
+        playlist.setItems(items, 1);
+
+        playlist.setPlayMode(PlaylistControl.PlayMode.Shuffle);
+        Assert.assertEquals(1, playlist.getCurrentIndex());
+
+        playlist.setPlayMode(PlaylistControl.PlayMode.Normal);
+        Assert.assertEquals(1, playlist.getCurrentIndex());
+        Assert.assertSame(items.get(2), moveToNext(false));
+    }
+
+    @Test
+    public void testMoveTo() {
+        playlist.setItems(items, 0);
+
+        Assert.assertSame(items.get(3), moveTo(3));
+        Assert.assertEquals(3, playlist.getCurrentIndex());
+        Assert.assertNull(moveTo(4));
+        Assert.assertNull(moveTo(-1));
+        Assert.assertEquals(3, playlist.getCurrentIndex());
+    }
+
+    @Test
+    public void testStepShouldNotMoveUntilApplied() {
+        playlist.setItems(items, 0);
+
+        FireTVPlaylist.Step step = playlist.getNext(false);
+
+        Assert.assertSame(items.get(1), step.getItem());
+        Assert.assertEquals(0, playlist.getCurrentIndex());
+        Assert.assertTrue(playlist.moveTo(step));
+        Assert.assertEquals(1, playlist.getCurrentIndex());
+    }
+
+    @Test
+    public void testStepShouldBeIgnoredAfterPlaylistChanged() {
+        playlist.setItems(items, 0);
+        FireTVPlaylist.Step step = playlist.getStep(3);
+
+        playlist.setItems(items.subList(0, 2), 1);
+
+        Assert.assertFalse(playlist.moveTo(step));
+        Assert.assertEquals(1, playlist.getCurrentIndex());
+    }
+
+    @Test
+    public void testLoopedItemShouldRepeatInAnyMode() {
+        playlist.setLoopedItem(items.get(0));
+
+        Assert.assertTrue(playlist.advancesOnFinish());
+        Assert.assertSame(items.get(0), moveToNext(true));
+        Assert.assertNull(moveToNext(false));
+
+        playlist.setItems(items.subList(0, 1), 0);
+        Assert.assertFalse(playlist.advancesOnFinish());
+    }
+
+    private MediaInfo moveToNext(boolean finished) {
+        return move(playlist.getNext(finished));
+    }
+
+    private MediaInfo moveToPrevious() {
+        return move(playlist.getPrevious());
+    }
+
+    private MediaInfo moveTo(int index) {
+        return move(playlist.getStep(index));
+    }
+
+    private MediaInfo move(FireTVPlaylist.Step step) {
+        if (step == null) {
+            return null;
+        }
+        Assert.assertTrue(playlist.moveTo(step));
+        return step.getItem();
+    }
+}
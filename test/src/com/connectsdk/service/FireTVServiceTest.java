@@ -20,6 +20,11 @@
 
 package com.connectsdk.service;
 
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.amazon.whisperlink.service.fling.media.SimplePlayerException;
 import com.amazon.whisperplay.fling.media.controller.RemoteMediaPlayer;
 import com.amazon.whisperplay.fling.media.service.CustomMediaPlayer;
 import com.amazon.whisperplay.fling.media.service.MediaPlayerInfo;
@@ -46,6 +51,7 @@ import com.connectsdk.service.capability.WebAppLauncher;
 import com.connectsdk.service.capability.listeners.ResponseListener;
 import com.connectsdk.service.command.FireTVServiceError;
 import com.connectsdk.service.command.NotSupportedServiceCommandError;
+import com.connectsdk.service.command.ServiceCommandError;
 import com.connectsdk.service.command.ServiceSubscription;
 import com.connectsdk.service.config.ServiceConfig;
 import com.connectsdk.service.config.ServiceDescription;
@@ -61,6 +67,7 @@ import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatcher;
 import org.mockito.Mockito;
+import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
@@ -69,8 +76,10 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -114,10 +123,25 @@ public class FireTVServiceTest {
                 MediaControl.Pause,
                 MediaControl.Stop,
                 MediaControl.Seek,
+                MediaControl.Rewind,
+                MediaControl.FastForward,
                 MediaControl.Duration,
                 MediaControl.Position,
                 MediaControl.PlayState,
                 MediaControl.PlayState_Subscribe,
+
+                VolumeControl.Volume_Get,
+                VolumeControl.Volume_Set,
+                VolumeControl.Volume_Up_Down,
+                VolumeControl.Volume_Subscribe,
+                VolumeControl.Mute_Get,
+                VolumeControl.Mute_Set,
+                VolumeControl.Mute_Subscribe,
+
+                PlaylistControl.Previous,
+                PlaylistControl.Next,
+                PlaylistControl.JumpToTrack,
+                PlaylistControl.SetPlayMode,
         }));
         Set<String> capabilities = new HashSet<String>(service.getCapabilities());
         Assert.assertEquals(requiredCapabilities, capabilities);
@@ -145,7 +169,7 @@ public class FireTVServiceTest {
                 service.getPriorityLevel(MediaControl.class));
         Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
                 service.getPriorityLevel(MouseControl.class));
-        Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
+        Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.HIGH,
                 service.getPriorityLevel(PlaylistControl.class));
         Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
                 service.getPriorityLevel(PowerControl.class));
@@ -155,7 +179,7 @@ public class FireTVServiceTest {
                 service.getPriorityLevel(ToastControl.class));
         Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
                 service.getPriorityLevel(TVControl.class));
-        Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
+        Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.HIGH,
                 service.getPriorityLevel(VolumeControl.class));
         Assert.assertEquals(CapabilityMethods.CapabilityPriorityLevel.NOT_SUPPORTED,
                 service.getPriorityLevel(WebAppLauncher.class));
@@ -196,6 +220,25 @@ public class FireTVServiceTest {
         Assert.assertEquals("poster", metadata.getImages().get(0).getUrl());
     }
 
+    @Test
+    public void testGetMediaInfoWithoutTitleAndDescription() {
+        MediaPlayer.MediaInfoListener listener = Mockito.mock(MediaPlayer.MediaInfoListener.class);
+        MediaPlayerInfo info = Mockito.mock(MediaPlayerInfo.class);
+        Mockito.when(info.getSource()).thenReturn("url");
+        Mockito.when(info.getMetadata()).thenReturn("{\"type\":\"video/mp4\",\"noreplay\":true}");
+        Mockito.when(remoteMediaPlayer.getMediaInfo())
+                .thenReturn(new MockAsyncFuture<MediaPlayerInfo>(info));
+
+        service.getMediaInfo(listener);
+
+        ArgumentCaptor<MediaInfo> argMediaInfo = ArgumentCaptor.forClass(MediaInfo.class);
+        Mockito.verify(listener).onSuccess(argMediaInfo.capture());
+        Assert.assertEquals("url", argMediaInfo.getValue().getUrl());
+        Assert.assertEquals("video/mp4", argMediaInfo.getValue().getMimeType());
+        Assert.assertNull(argMediaInfo.getValue().getTitle());
+        Assert.assertNull(argMediaInfo.getValue().getDescription());
+    }
+
     @Test
     public void testGetMediaInfoWithException() {
         MediaPlayer.MediaInfoListener listener = Mockito.mock(MediaPlayer.MediaInfoListener.class);
@@ -518,16 +561,75 @@ public class FireTVServiceTest {
 
     @Test
     public void testRewind() {
-        ResponseListener listener = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                -FireTVService.DEFAULT_SKIP_INTERVAL)).thenReturn(new MockAsyncFuture<Void>(null));
         service.rewind(listener);
-        Mockito.verify(listener).onError(Mockito.isA(NotSupportedServiceCommandError.class));
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                -FireTVService.DEFAULT_SKIP_INTERVAL);
+        Mockito.verify(listener).onSuccess(null);
     }
 
     @Test
     public void testFastForward() {
-        ResponseListener listener = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                FireTVService.DEFAULT_SKIP_INTERVAL)).thenReturn(new MockAsyncFuture<Void>(null));
         service.fastForward(listener);
-        Mockito.verify(listener).onError(Mockito.isA(NotSupportedServiceCommandError.class));
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                FireTVService.DEFAULT_SKIP_INTERVAL);
+        Mockito.verify(listener).onSuccess(null);
+    }
+
+    @Test
+    public void testFastForwardWithCustomInterval() {
+        service.setFastForwardInterval(30000L);
+        service.fastForward(Mockito.mock(ResponseListener.class));
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                30000L);
+    }
+
+    @Test
+    public void testRewindWithException() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Relative),
+                Mockito.anyLong())).thenReturn(new MockAsyncFutureFailure<Void>());
+        service.rewind(listener);
+        verifyListenerError("Error seeking", listener);
+    }
+
+    @Test
+    public void testRapidFastForwardShouldBeAddedTogether() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Relative),
+                Mockito.anyLong())).thenReturn(future, new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listenerSecond = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerThird = Mockito.mock(ResponseListener.class);
+
+        service.fastForward(Mockito.mock(ResponseListener.class));
+        service.fastForward(listenerSecond);
+        service.rewind(listenerThird);
+        service.seekRelative(3000L, null);
+        future.complete(null);
+
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Relative,
+                3000L);
+        Mockito.verify(listenerSecond).onSuccess(null);
+        Mockito.verify(listenerThird).onSuccess(null);
+    }
+
+    @Test
+    public void testRelativeSeekShouldBeAddedToWaitingAbsoluteSeek() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.any(CustomMediaPlayer.PlayerSeekMode.class),
+                Mockito.anyLong())).thenReturn(future, new MockAsyncFuture<Void>(null));
+
+        service.seek(100L, null);
+        service.seek(5000L, null);
+        service.seekRelative(1000L, null);
+        future.complete(null);
+
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 6000L);
     }
 
     @Test
@@ -544,6 +646,211 @@ public class FireTVServiceTest {
         Mockito.verify(listener).onError(Mockito.isA(NotSupportedServiceCommandError.class));
     }
 
+    @Test
+    public void testPlayPlaylistShouldPlayStartItem() throws JSONException {
+        mockSetMediaSource();
+        List<MediaInfo> items = createPlaylistItems(3);
+        MediaPlayer.LaunchListener listener = Mockito.mock(MediaPlayer.LaunchListener.class);
+
+        service.playPlaylist(items, 1, listener);
+
+        verifySetMediaSource("url1", "{'type':'video/mp4','noreplay':true}", true, false);
+        ArgumentCaptor<MediaPlayer.MediaLaunchObject> launchObject =
+                ArgumentCaptor.forClass(MediaPlayer.MediaLaunchObject.class);
+        Mockito.verify(listener).onSuccess(launchObject.capture());
+        Assert.assertSame(service, launchObject.getValue().playlistControl);
+        Assert.assertEquals(1, service.getPlaylistIndex());
+        Assert.assertEquals(items, service.getPlaylist());
+    }
+
+    @Test
+    public void testPlayPlaylistWithInvalidIndexShouldFail() {
+        MediaPlayer.LaunchListener listener = Mockito.mock(MediaPlayer.LaunchListener.class);
+
+        service.playPlaylist(createPlaylistItems(3), 3, listener);
+
+        verifyListenerError("Invalid playlist", listener);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).setMediaSource(
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyBoolean(),
+                Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testFinishedItemShouldAdvancePlaylist() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(3), 0,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        CustomMediaPlayer.StatusListener statusListener = captureStatusListener();
+
+        statusListener.onStatusChange(mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+        statusListener.onStatusChange(mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url1"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+        Assert.assertEquals(1, service.getPlaylistIndex());
+
+        statusListener.onStatusChange(mockStatus(MediaPlayerStatus.MediaState.Playing), 0);
+        statusListener.onStatusChange(mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url2"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testFinishedLastItemShouldStopPlaylist() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(2), 1,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+
+        captureStatusListener().onStatusChange(
+                mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).setMediaSource(
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyBoolean(),
+                Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testRepeatAllShouldStartOverAfterLastItem() {
+        mockSetMediaSource();
+        service.setPlayMode(PlaylistControl.PlayMode.RepeatAll,
+                Mockito.mock(ResponseListener.class));
+        service.playPlaylist(createPlaylistItems(2), 1,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+
+        captureStatusListener().onStatusChange(
+                mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url0"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+        Assert.assertEquals(0, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testNextAndPreviousShouldPlayPlaylistItems() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(3), 0,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        ResponseListener<Object> nextListener = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> previousListener = Mockito.mock(ResponseListener.class);
+
+        service.next(nextListener);
+        service.next(nextListener);
+        service.previous(previousListener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setMediaSource(Mockito.eq("url1"),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyBoolean());
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url2"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+        Mockito.verify(nextListener, Mockito.times(2))
+                .onSuccess(Mockito.isA(MediaPlayer.MediaLaunchObject.class));
+        Mockito.verify(previousListener)
+                .onSuccess(Mockito.isA(MediaPlayer.MediaLaunchObject.class));
+        Assert.assertEquals(1, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testFailedNextShouldKeepPlaylistIndex() {
+        Mockito.when(remoteMediaPlayer.setMediaSource(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean()))
+                .thenReturn(new MockAsyncFuture<Void>(null), new MockAsyncFutureFailure<Void>());
+        service.playPlaylist(createPlaylistItems(3), 0,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.next(listener);
+
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url1"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+        Mockito.verify(listener).onError(Mockito.any(ServiceCommandError.class));
+        Assert.assertEquals(0, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testNextAtLastItemShouldFail() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(2), 1,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.next(listener);
+
+        verifyListenerError("No next item", listener);
+    }
+
+    @Test
+    public void testJumpToTrack() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(3), 0,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.jumpToTrack(2, listener);
+
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("url2"), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean());
+        Assert.assertEquals(2, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testPlayMediaWithLoopShouldRepeatMedia() {
+        mockSetMediaSource();
+        service.playMedia(new MediaInfo.Builder("url", "video/mp4").build(), true,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+
+        captureStatusListener().onStatusChange(
+                mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setMediaSource(Mockito.eq("url"),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyBoolean());
+    }
+
+    @Test
+    public void testPlayMediaShouldStopPlaylist() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(3), 0,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        CustomMediaPlayer.StatusListener statusListener = captureStatusListener();
+
+        service.playMedia(new MediaInfo.Builder("url", "video/mp4").build(), false,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(statusListener);
+        Assert.assertTrue(service.getPlaylist().isEmpty());
+        Assert.assertEquals(-1, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testDisconnectShouldStopPlaylist() {
+        mockSetMediaSource();
+        service.playPlaylist(createPlaylistItems(3), 1,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        CustomMediaPlayer.StatusListener statusListener = captureStatusListener();
+
+        service.disconnect();
+
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(statusListener);
+        Assert.assertTrue(service.getPlaylist().isEmpty());
+        Assert.assertEquals(-1, service.getPlaylistIndex());
+    }
+
+    @Test
+    public void testStopShouldStopPlaylist() {
+        mockSetMediaSource();
+        Mockito.when(remoteMediaPlayer.stop()).thenReturn(new MockAsyncFuture<Void>(null));
+        service.playMedia(new MediaInfo.Builder("url", "video/mp4").build(), true,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        CustomMediaPlayer.StatusListener statusListener = captureStatusListener();
+
+        service.closeMedia(null, Mockito.mock(ResponseListener.class));
+        statusListener.onStatusChange(mockStatus(MediaPlayerStatus.MediaState.Finished), 0);
+
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(statusListener);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).setMediaSource(Mockito.eq("url"),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyBoolean());
+        Assert.assertTrue(service.getPlaylist().isEmpty());
+    }
+
     @Test
     public void testSeek() {
         ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
@@ -578,279 +885,1496 @@ public class FireTVServiceTest {
     }
 
     @Test
-    public void testGetDuration() {
-        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
-        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(new MockAsyncFuture<Long>(123L));
-        service.getDuration(listener);
+    public void testSeekWhileSeekInFlightShouldWait() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future, new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listenerFirst = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerSecond = Mockito.mock(ResponseListener.class);
 
-        Mockito.verify(remoteMediaPlayer).getDuration();
-        Mockito.verify(listener).onSuccess(Mockito.eq(123L));
+        service.seek(100L, listenerFirst);
+        service.seek(200L, listenerSecond);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).seek(
+                CustomMediaPlayer.PlayerSeekMode.Absolute, 200L);
+
+        future.complete(null);
+        Mockito.verify(listenerFirst).onSuccess(null);
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 200L);
+        Mockito.verify(listenerSecond).onSuccess(null);
     }
 
     @Test
-    public void testGetDurationWithException() {
-        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
-        Mockito.when(remoteMediaPlayer.getDuration())
-                .thenReturn(new MockAsyncFutureFailure<Long>());
-        service.getDuration(listener);
-        Mockito.verify(remoteMediaPlayer).getDuration();
-        verifyListenerError("Error getting duration", listener);
+    public void testSeekShouldSupersedeWaitingSeek() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future, new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listenerFirst = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerSecond = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerThird = Mockito.mock(ResponseListener.class);
+
+        service.seek(100L, listenerFirst);
+        service.seek(200L, listenerSecond);
+        service.seek(300L, listenerThird);
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listenerSecond).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.SUPERSEDED, error.getValue().getCode());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).seek(
+                CustomMediaPlayer.PlayerSeekMode.Absolute, 200L);
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 300L);
+        Mockito.verify(listenerFirst).onSuccess(null);
+        Mockito.verify(listenerThird).onSuccess(null);
+        Mockito.verify(listenerSecond, Mockito.times(0)).onSuccess(Mockito.any());
     }
 
     @Test
-    public void testGetDurationWithInWrongState() {
-        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
-        Mockito.when(remoteMediaPlayer.getDuration()).thenThrow(IllegalStateException.class);
-        service.getDuration(listener);
-        Mockito.verify(remoteMediaPlayer).getDuration();
-        verifyListenerError("Error getting duration", listener);
+    public void testSeekAfterFailedSeekShouldBeSent() {
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenThrow(IllegalStateException.class)
+                .thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.seek(200L, listener);
+
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Absolute, 200L);
+        Mockito.verify(listener).onSuccess(null);
     }
 
     @Test
-    public void testGetPosition() {
-        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
-        Mockito.when(remoteMediaPlayer.getPosition()).thenReturn(new MockAsyncFuture<Long>(123L));
-        service.getPosition(listener);
-        Mockito.verify(remoteMediaPlayer).getPosition();
-        Mockito.verify(listener).onSuccess(Mockito.eq(123L));
+    public void testPlayWhileSeekInFlightShouldWait() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.play(listener);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).play();
+        Assert.assertEquals(1, service.getCommandQueue().getPendingCount());
+        Assert.assertEquals(1, service.getCommandQueue().getInFlightCount());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer).play();
+        Mockito.verify(listener).onSuccess(null);
+        Assert.assertEquals(0, service.getCommandQueue().getPendingCount());
+        Assert.assertEquals(2, service.getCommandQueue().getCompletedCount());
     }
 
     @Test
-    public void testGetPositionWithException() {
-        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
-        Mockito.when(remoteMediaPlayer.getPosition())
-                .thenReturn(new MockAsyncFutureFailure<Long>());
-        service.getPosition(listener);
-        Mockito.verify(remoteMediaPlayer).getPosition();
-        verifyListenerError("Error getting position", listener);
+    public void testPauseFollowedByPlayShouldCancelOut() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(future);
+        ResponseListener<Object> listenerPause = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerPlay = Mockito.mock(ResponseListener.class);
+
+        service.play(Mockito.mock(ResponseListener.class));
+        service.pause(listenerPause);
+        service.play(listenerPlay);
+        Mockito.verify(listenerPause).onSuccess(null);
+        Mockito.verify(listenerPlay).onSuccess(null);
+        Assert.assertEquals(0, service.getCommandQueue().getPendingCount());
+        Assert.assertEquals(2, service.getCommandQueue().getMergedCount());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).play();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).pause();
     }
 
     @Test
-    public void testGetPositionInWrongState() {
-        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
-        Mockito.when(remoteMediaPlayer.getPosition()).thenThrow(IllegalStateException.class);
-        service.getPosition(listener);
-        Mockito.verify(remoteMediaPlayer).getPosition();
-        verifyListenerError("Error getting position", listener);
+    public void testAnsweredPlayShouldNotCountAsDeviceState() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(new MockAsyncFuture<Void>(null));
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        ResponseListener<Object> listenerPause = Mockito.mock(ResponseListener.class);
+        service.play(Mockito.mock(ResponseListener.class));
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.pause(listenerPause);
+        service.play(Mockito.mock(ResponseListener.class));
+        future.complete(null);
+
+        Mockito.verify(listenerPause).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).play();
     }
 
     @Test
-    public void testGetPlayState() {
-        MediaControl.PlayStateListener listener =
-                Mockito.mock(MediaControl.PlayStateListener.class);
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
-        Mockito.when(remoteMediaPlayer.getStatus())
-                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
-        service.getPlayState(listener);
-        Mockito.verify(remoteMediaPlayer).getStatus();
-        Mockito.verify(listener).onSuccess(Mockito.eq(MediaControl.PlayStateStatus.Paused));
+    public void testCancelledRelativeSeekShouldNotBeApplied() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Relative),
+                Mockito.anyLong())).thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+
+        service.seekRelative(10L, listener);
+        FireTVCommandHandle<Object> handle = service.withTimeout(0)
+                .seekRelative(20L, Mockito.mock(ResponseListener.class));
+        handle.cancel();
+        future.complete(null);
+
+        Mockito.verify(remoteMediaPlayer).seek(CustomMediaPlayer.PlayerSeekMode.Relative, 10L);
+        Mockito.verify(listener).onSuccess(null);
     }
 
     @Test
-    public void testGetPlayStateWithException() {
-        MediaControl.PlayStateListener listener = Mockito
-                .mock(MediaControl.PlayStateListener.class);
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
-        Mockito.when(remoteMediaPlayer.getStatus())
-                .thenReturn(new MockAsyncFutureFailure<MediaPlayerStatus>());
-        service.getPlayState(listener);
-        Mockito.verify(remoteMediaPlayer).getStatus();
-        verifyListenerError("Error getting play state", listener);
+    public void testPlayShouldSupersedeWaitingPauseInUnknownState() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listenerPause = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerPlay = Mockito.mock(ResponseListener.class);
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.pause(listenerPause);
+        service.play(listenerPlay);
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listenerPause).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.SUPERSEDED, error.getValue().getCode());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).pause();
+        Mockito.verify(remoteMediaPlayer).play();
+        Mockito.verify(listenerPlay).onSuccess(null);
     }
 
     @Test
-    public void testGetPlayStateInWrongState() {
-        MediaControl.PlayStateListener listener = Mockito
-                .mock(MediaControl.PlayStateListener.class);
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
-        Mockito.when(remoteMediaPlayer.getStatus()).thenThrow(IllegalStateException.class);
-        service.getPlayState(listener);
-        Mockito.verify(remoteMediaPlayer).getStatus();
-        verifyListenerError("Error getting play state", listener);
+    public void testRepeatedPauseShouldBeMerged() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        Mockito.when(remoteMediaPlayer.pause()).thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listenerFirst = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listenerSecond = Mockito.mock(ResponseListener.class);
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.pause(listenerFirst);
+        service.pause(listenerSecond);
+        Assert.assertEquals(1, service.getCommandQueue().getPendingCount());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).pause();
+        Mockito.verify(listenerFirst).onSuccess(null);
+        Mockito.verify(listenerSecond).onSuccess(null);
     }
 
     @Test
-    public void testSubscribePlayState() {
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
-        Mockito.when(remoteMediaPlayer.getStatus())
-                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+    public void testCommandShouldBeRejectedWhenQueueIsFull() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        service.getCommandQueue().setCapacity(1);
 
-        MediaControl.PlayStateListener listener =
-                Mockito.mock(MediaControl.PlayStateListener.class);
-        service.subscribePlayState(listener);
-        Mockito.verify(remoteMediaPlayer).addStatusListener(
-                Mockito.any(CustomMediaPlayer.StatusListener.class));
-        Mockito.verify(listener).onSuccess(Mockito.eq(MediaControl.PlayStateStatus.Paused));
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.play(Mockito.mock(ResponseListener.class));
+        service.stop(listener);
+
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.QUEUE_FULL, error.getValue().getCode());
+        Assert.assertEquals(1, service.getCommandQueue().getRejectedCount());
+        Assert.assertEquals(1, service.getCommandQueue().getMaxPendingCount());
     }
 
     @Test
-    public void testSubscribePlayStateShouldBeSingle() {
-        MediaControl.PlayStateListener listener =
-                Mockito.mock(MediaControl.PlayStateListener.class);
-        ServiceSubscription<MediaControl.PlayStateListener> subscription =
-                service.subscribePlayState(listener);
-        ServiceSubscription<MediaControl.PlayStateListener> subscription2 =
-                service.subscribePlayState(listener);
-        Assert.assertSame(subscription, subscription2);
+    public void testCommandsShouldBeSentUpToMaxInFlight() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(new MockAsyncFutureDeferred<Void>());
+        Mockito.when(remoteMediaPlayer.stop()).thenReturn(new MockAsyncFuture<Void>(null));
+        service.getCommandQueue().setMaxInFlight(2);
+
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        service.play(Mockito.mock(ResponseListener.class));
+        service.stop(Mockito.mock(ResponseListener.class));
+        Mockito.verify(remoteMediaPlayer).play();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).stop();
+        Assert.assertEquals(2, service.getCommandQueue().getInFlightCount());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer).stop();
+        Assert.assertEquals(1, service.getCommandQueue().getInFlightCount());
     }
 
     @Test
-    public void testSubscribePlayStateShouldAddNewListener() {
-        MediaControl.PlayStateListener listenerFirst =
+    public void testCommandTimeoutShouldFailListener() {
+        MockAsyncFutureDeferred<Long> future = new MockAsyncFutureDeferred<Long>();
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(future);
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.setCommandTimeout(1000);
+
+        service.getDuration(listener);
+        Robolectric.getUiThreadScheduler().advanceBy(999);
+        Mockito.verify(listener, Mockito.times(0)).onError(Mockito.any(ServiceCommandError.class));
+        Robolectric.getUiThreadScheduler().advanceBy(1);
+
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.TIMEOUT, error.getValue().getCode());
+
+        future.complete(123L);
+        Mockito.verify(listener, Mockito.times(0)).onSuccess(Mockito.anyLong());
+    }
+
+    @Test
+    public void testLateAnswerShouldNotReachNextRequest() {
+        MockAsyncFutureDeferred<Long> futureFirst = new MockAsyncFutureDeferred<Long>();
+        MockAsyncFutureDeferred<Long> futureSecond = new MockAsyncFutureDeferred<Long>();
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(futureFirst, futureSecond);
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+
+        service.withTimeout(1000).getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+        service.getDuration(listener);
+        futureFirst.complete(1L);
+        Mockito.verify(listener, Mockito.times(0)).onSuccess(Mockito.anyLong());
+
+        futureSecond.complete(2L);
+        Mockito.verify(listener).onSuccess(2L);
+    }
+
+    @Test
+    public void testCancelShouldFailListener() {
+        MockAsyncFutureDeferred<Long> future = new MockAsyncFutureDeferred<Long>();
+        Mockito.when(remoteMediaPlayer.getPosition()).thenReturn(future);
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+        MediaControl.PositionListener otherListener =
+                Mockito.mock(MediaControl.PositionListener.class);
+
+        FireTVCommandHandle<Long> handle = service.withTimeout(0).getPosition(listener);
+        service.getPosition(otherListener);
+        Assert.assertTrue(handle.cancel());
+        Assert.assertFalse(handle.cancel());
+
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.CANCELLED, error.getValue().getCode());
+        Assert.assertTrue(handle.isDone());
+
+        future.complete(100L);
+        Mockito.verify(listener, Mockito.times(0)).onSuccess(Mockito.anyLong());
+        Mockito.verify(otherListener).onSuccess(100L);
+    }
+
+    @Test
+    public void testCancelWaitingCommandShouldFreeQueueSlot() {
+        MockAsyncFutureDeferred<Void> future = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(future);
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+
+        FireTVCommandHandle<Object> handle = service.withTimeout(0)
+                .play(Mockito.mock(ResponseListener.class));
+        Assert.assertEquals(1, service.getCommandQueue().getPendingCount());
+        handle.cancel();
+        Assert.assertEquals(0, service.getCommandQueue().getPendingCount());
+
+        future.complete(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).play();
+    }
+
+    @Test
+    public void testCancelSentCommandShouldSendNextCommand() {
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(new MockAsyncFutureDeferred<Void>());
+        Mockito.when(remoteMediaPlayer.pause()).thenReturn(new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        FireTVCommandHandle<Object> handle = service.withTimeout(0)
+                .seek(100L, Mockito.mock(ResponseListener.class));
+        service.pause(listener);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).pause();
+
+        handle.cancel();
+        Mockito.verify(remoteMediaPlayer).pause();
+        Mockito.verify(listener).onSuccess(null);
+        Assert.assertEquals(0, service.getCommandQueue().getInFlightCount());
+    }
+
+    @Test
+    public void testCommandAfterDeadlineShouldNotBeSent() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        FireTVCommandHandle<Object> handle = service.withDeadline(
+                SystemClock.elapsedRealtime() - 1).play(listener);
+
+        Assert.assertTrue(handle.isDone());
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).play();
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.TIMEOUT, error.getValue().getCode());
+    }
+
+    @Test
+    public void testFailedGetterShouldBeRetried() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>(), new MockAsyncFuture<Long>(123L));
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.setRetryPolicy(new FireTVRetryPolicy(3, 100, 1000, 10, 10000));
+
+        service.getDuration(listener);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getDuration();
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getDuration();
+        Mockito.verify(listener).onSuccess(123L);
+        Mockito.verify(listener, Mockito.times(0)).onError(Mockito.any(ServiceCommandError.class));
+    }
+
+    @Test
+    public void testRetryShouldGiveUpAfterMaxRetries() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>());
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.setRetryPolicy(new FireTVRetryPolicy(2, 100, 1000, 10, 10000));
+
+        service.getDuration(listener);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+        Robolectric.getUiThreadScheduler().advanceBy(200);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(3)).getDuration();
+        verifyListenerError("Error getting duration", listener);
+    }
+
+    @Test
+    public void testRetryShouldBeLimitedByBudget() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>());
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.setRetryPolicy(new FireTVRetryPolicy(1, 100, 1000, 1, 10000));
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+        service.getDuration(listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(3)).getDuration();
+        verifyListenerError("Error getting duration", listener);
+    }
+
+    @Test
+    public void testFailedAbsoluteSeekShouldBeRetried() {
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(new MockAsyncFutureFailure<Void>(),
+                new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        service.setRetryPolicy(new FireTVRetryPolicy(3, 100, 1000, 10, 10000));
+
+        service.seek(100L, listener);
+        Assert.assertEquals(1, service.getCommandQueue().getInFlightCount());
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).seek(
+                CustomMediaPlayer.PlayerSeekMode.Absolute, 100L);
+        Mockito.verify(listener).onSuccess(null);
+    }
+
+    @Test
+    public void testFailedRelativeSeekShouldNotBeRetried() {
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Relative),
+                Mockito.anyLong())).thenReturn(new MockAsyncFutureFailure<Void>());
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        service.setRetryPolicy(new FireTVRetryPolicy(3, 100, 1000, 10, 10000));
+
+        service.seekRelative(100L, listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).seek(
+                CustomMediaPlayer.PlayerSeekMode.Relative, 100L);
+        verifyListenerError("Error seeking", listener);
+    }
+
+    @Test
+    public void testFailedPlayMediaShouldBeRetried() {
+        MediaPlayer.LaunchListener launchListener = Mockito.mock(MediaPlayer.LaunchListener.class);
+        Mockito.when(remoteMediaPlayer.setMediaSource(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean()))
+                .thenReturn(new MockAsyncFutureFailure<Void>(), new MockAsyncFuture<Void>(null));
+        service.setRetryPolicy(new FireTVRetryPolicy(3, 100, 1000, 10, 10000));
+
+        service.playMedia("url", "mime", "title", "desc", "icon", false, launchListener);
+        Robolectric.getUiThreadScheduler().advanceBy(100);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setMediaSource(Mockito.anyString(),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyBoolean());
+        verifyLauncherListener(launchListener);
+    }
+
+    @Test
+    public void testRetryDelayShouldGrowExponentially() {
+        FireTVRetryPolicy policy = new FireTVRetryPolicy(5, 100, 1000, 10, 10000);
+        Random random = new Random(0);
+        for (int i = 0; i < 10; i++) {
+            long first = policy.getDelay(0, random);
+            long third = policy.getDelay(2, random);
+            long capped = policy.getDelay(10, random);
+            Assert.assertTrue(first >= 50 && first <= 100);
+            Assert.assertTrue(third >= 200 && third <= 400);
+            Assert.assertTrue(capped >= 500 && capped <= 1000);
+        }
+    }
+
+    @Test
+    public void testCircuitShouldOpenAfterConsecutiveFailures() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>());
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.getCircuitBreaker().setFailureThreshold(2);
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Assert.assertEquals(FireTVCircuitBreaker.State.CLOSED,
+                service.getCircuitBreaker().getState());
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Assert.assertEquals(FireTVCircuitBreaker.State.OPEN,
+                service.getCircuitBreaker().getState());
+        service.getDuration(listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getDuration();
+        ArgumentCaptor<FireTVServiceError> error = ArgumentCaptor
+                .forClass(FireTVServiceError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.CIRCUIT_OPEN, error.getValue().getCode());
+    }
+
+    @Test
+    public void testErrorReplyOfDeviceShouldNotCountAsFailure() {
+        MockAsyncFutureDeferred<Void> playFuture = new MockAsyncFutureDeferred<Void>();
+        MockAsyncFutureDeferred<Void> pauseFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>());
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(playFuture);
+        Mockito.when(remoteMediaPlayer.pause()).thenReturn(pauseFuture);
+        service.getCircuitBreaker().setFailureThreshold(2);
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Assert.assertEquals(1, service.getCircuitBreaker().getFailureCount());
+        service.play(Mockito.mock(ResponseListener.class));
+        playFuture.fail(new IllegalStateException("No media"));
+        service.pause(Mockito.mock(ResponseListener.class));
+        pauseFuture.fail(new IOException("Error", new SimplePlayerException()));
+
+        Assert.assertEquals(FireTVCircuitBreaker.State.CLOSED,
+                service.getCircuitBreaker().getState());
+        Assert.assertEquals(0, service.getCircuitBreaker().getFailureCount());
+    }
+
+    @Test
+    public void testTransportErrorShouldCountAsFailure() {
+        MockAsyncFutureDeferred<Void> playFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(playFuture);
+        service.getCircuitBreaker().setFailureThreshold(1);
+
+        service.play(Mockito.mock(ResponseListener.class));
+        playFuture.fail(new IOException("Error", new Exception("Connection refused")));
+
+        Assert.assertEquals(FireTVCircuitBreaker.State.OPEN,
+                service.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void testSuccessShouldResetFailureCount() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>(), new MockAsyncFuture<Long>(1L),
+                new MockAsyncFutureFailure<Long>());
+        service.getCircuitBreaker().setFailureThreshold(2);
+        service.setStateCacheTimeout(0);
+
+        for (int i = 0; i < 3; i++) {
+            service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        }
+
+        Assert.assertEquals(FireTVCircuitBreaker.State.CLOSED,
+                service.getCircuitBreaker().getState());
+        Assert.assertEquals(1, service.getCircuitBreaker().getFailureCount());
+    }
+
+    @Test
+    public void testSuccessfulProbeShouldCloseCircuit() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>(), new MockAsyncFuture<Long>(1L));
+        Mockito.when(remoteMediaPlayer.getStatus()).thenReturn(
+                new MockAsyncFuture<MediaPlayerStatus>(Mockito.mock(MediaPlayerStatus.class)));
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        service.getCircuitBreaker().setFailureThreshold(1);
+        service.getCircuitBreaker().setOpenDuration(1000);
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        service.play(Mockito.mock(ResponseListener.class));
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).getStatus();
+
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+        service.play(Mockito.mock(ResponseListener.class));
+        Mockito.verify(remoteMediaPlayer).getStatus();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).play();
+        Assert.assertEquals(FireTVCircuitBreaker.State.CLOSED,
+                service.getCircuitBreaker().getState());
+
+        service.getDuration(listener);
+        Mockito.verify(listener).onSuccess(1L);
+    }
+
+    @Test
+    public void testFailedProbeShouldReopenCircuit() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureFailure<Long>());
+        Mockito.when(remoteMediaPlayer.getStatus()).thenReturn(
+                new MockAsyncFutureFailure<MediaPlayerStatus>());
+        service.getCircuitBreaker().setFailureThreshold(1);
+        service.getCircuitBreaker().setOpenDuration(1000);
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+
+        Mockito.verify(remoteMediaPlayer).getStatus();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getDuration();
+        Assert.assertEquals(FireTVCircuitBreaker.State.OPEN,
+                service.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void testTimeoutShouldCountAsFailure() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(
+                new MockAsyncFutureDeferred<Long>());
+        service.getCircuitBreaker().setFailureThreshold(1);
+        service.setCommandTimeout(1000);
+
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        Assert.assertEquals(FireTVCircuitBreaker.State.OPEN,
+                service.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void testTimeoutOfWaitingCommandShouldNotCountAsFailure() {
+        Mockito.when(remoteMediaPlayer.seek(Mockito.eq(CustomMediaPlayer.PlayerSeekMode.Absolute),
+                Mockito.anyLong())).thenReturn(new MockAsyncFutureDeferred<Void>());
+        service.getCircuitBreaker().setFailureThreshold(1);
+        service.seek(100L, Mockito.mock(ResponseListener.class));
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.withTimeout(1000).play(listener);
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        Mockito.verify(listener).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).play();
+        Assert.assertEquals(FireTVCircuitBreaker.State.CLOSED,
+                service.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void testReleasedCompletionShouldDropLateAnswer() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        FireTVCommandHandle<Object> handle = new FireTVCommandHandle<Object>(listener,
+                FireTVCallbackExecutors.direct(), new Handler(Looper.getMainLooper()), null);
+        FireTVService.Completion<Object, Object> completion =
+                new FireTVService.Completion<Object, Object>(FireTVCallbackExecutors.direct(),
+                        handle, null, "error");
+        handle.bind(completion);
+        MockAsyncFutureDeferred<Object> future = new MockAsyncFutureDeferred<Object>();
+        completion.await(future);
+
+        handle.cancel();
+        future.complete("late response");
+
+        Mockito.verify(listener).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(listener, Mockito.times(0)).onSuccess(Mockito.any());
+        Assert.assertFalse(completion.release(handle));
+    }
+
+    @Test
+    public void testGetDuration() {
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(new MockAsyncFuture<Long>(123L));
+        service.getDuration(listener);
+
+        Mockito.verify(remoteMediaPlayer).getDuration();
+        Mockito.verify(listener).onSuccess(Mockito.eq(123L));
+    }
+
+    @Test
+    public void testGetDurationWithException() {
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        Mockito.when(remoteMediaPlayer.getDuration())
+                .thenReturn(new MockAsyncFutureFailure<Long>());
+        service.getDuration(listener);
+        Mockito.verify(remoteMediaPlayer).getDuration();
+        verifyListenerError("Error getting duration", listener);
+    }
+
+    @Test
+    public void testGetDurationWithInWrongState() {
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+        Mockito.when(remoteMediaPlayer.getDuration()).thenThrow(IllegalStateException.class);
+        service.getDuration(listener);
+        Mockito.verify(remoteMediaPlayer).getDuration();
+        verifyListenerError("Error getting duration", listener);
+    }
+
+    @Test
+    public void testGetPosition() {
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+        Mockito.when(remoteMediaPlayer.getPosition()).thenReturn(new MockAsyncFuture<Long>(123L));
+        service.getPosition(listener);
+        Mockito.verify(remoteMediaPlayer).getPosition();
+        Mockito.verify(listener).onSuccess(Mockito.eq(123L));
+    }
+
+    @Test
+    public void testGetPositionWithException() {
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+        Mockito.when(remoteMediaPlayer.getPosition())
+                .thenReturn(new MockAsyncFutureFailure<Long>());
+        service.getPosition(listener);
+        Mockito.verify(remoteMediaPlayer).getPosition();
+        verifyListenerError("Error getting position", listener);
+    }
+
+    @Test
+    public void testGetPositionInWrongState() {
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+        Mockito.when(remoteMediaPlayer.getPosition()).thenThrow(IllegalStateException.class);
+        service.getPosition(listener);
+        Mockito.verify(remoteMediaPlayer).getPosition();
+        verifyListenerError("Error getting position", listener);
+    }
+
+    @Test
+    public void testGetPlayState() {
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+        service.getPlayState(listener);
+        Mockito.verify(remoteMediaPlayer).getStatus();
+        Mockito.verify(listener).onSuccess(Mockito.eq(MediaControl.PlayStateStatus.Paused));
+    }
+
+    @Test
+    public void testGetPlayStateWithException() {
+        MediaControl.PlayStateListener listener = Mockito
+                .mock(MediaControl.PlayStateListener.class);
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFutureFailure<MediaPlayerStatus>());
+        service.getPlayState(listener);
+        Mockito.verify(remoteMediaPlayer).getStatus();
+        verifyListenerError("Error getting play state", listener);
+    }
+
+    @Test
+    public void testGetPlayStateInWrongState() {
+        MediaControl.PlayStateListener listener = Mockito
+                .mock(MediaControl.PlayStateListener.class);
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus()).thenThrow(IllegalStateException.class);
+        service.getPlayState(listener);
+        Mockito.verify(remoteMediaPlayer).getStatus();
+        verifyListenerError("Error getting play state", listener);
+    }
+
+    @Test
+    public void testSubscribePlayState() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        service.subscribePlayState(listener);
+        Mockito.verify(remoteMediaPlayer).addStatusListener(
+                Mockito.any(CustomMediaPlayer.StatusListener.class));
+        Mockito.verify(listener).onSuccess(Mockito.eq(MediaControl.PlayStateStatus.Paused));
+    }
+
+    @Test
+    public void testSubscribePlayStateShouldBeSingle() {
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        ServiceSubscription<MediaControl.PlayStateListener> subscription =
+                service.subscribePlayState(listener);
+        ServiceSubscription<MediaControl.PlayStateListener> subscription2 =
+                service.subscribePlayState(listener);
+        Assert.assertSame(subscription, subscription2);
+    }
+
+    @Test
+    public void testSubscribePlayStateShouldAddNewListener() {
+        MediaControl.PlayStateListener listenerFirst =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        MediaControl.PlayStateListener listenerSecond =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+
+        ServiceSubscription<MediaControl.PlayStateListener> subscription =
+                service.subscribePlayState(listenerFirst);
+        Assert.assertEquals(1, subscription.getListeners().size());
+
+        ServiceSubscription<MediaControl.PlayStateListener> subscription2 =
+                service.subscribePlayState(listenerSecond);
+        Assert.assertEquals(2, subscription2.getListeners().size());
+
+        ServiceSubscription<MediaControl.PlayStateListener> subscription3 =
+                service.subscribePlayState(listenerSecond);
+        Assert.assertEquals(2, subscription2.getListeners().size());
+    }
+
+    @Test
+    public void testDisconnectWithPlayStateSubscription() {
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        CustomMediaPlayer.StatusListener subscription =
+                (CustomMediaPlayer.StatusListener)service.subscribePlayState(listener);
+        service.disconnect();
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(subscription);
+    }
+
+    @Test
+    public void testDisconnectWithoutSubscription() {
+        service.disconnect();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).removeStatusListener(
+                Mockito.any(CustomMediaPlayer.StatusListener.class));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusPaused() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Paused,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusError() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Error);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusFinished() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Finished);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Finished,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusNoSource() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.NoSource);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Idle,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusPlaying() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Playing,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusPreparing() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.PreparingMedia);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Buffering,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusReady() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.ReadyToPlay);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testCreatePlayStateStatusFromFireTVStatusSeeking() {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Seeking);
+        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
+                service.createPlayStateStatusFromFireTVStatus(status));
+    }
+
+    @Test
+    public void testConnect() {
+        ConnectableDevice listener = Mockito.mock(ConnectableDevice.class);
+        service.setListener(listener);
+
+        service.connect();
+
+        Mockito.verify(listener).onConnectionSuccess(service);
+        Assert.assertTrue(service.isConnected());
+    }
+
+    @Test
+    public void testConnectShouldProbeMimeTypes() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported(Mockito.anyString()))
+                .thenReturn(new MockAsyncFuture<Boolean>(true));
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported("video/webm"))
+                .thenReturn(new MockAsyncFuture<Boolean>(false));
+        service.setProbedMimeTypes(Arrays.asList("video/mp4", "video/webm", "image/png"));
+
+        service.connect();
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(3))
+                .isMimeTypeSupported(Mockito.anyString());
+        Assert.assertTrue(service.canPlay("video/mp4"));
+        Assert.assertTrue(service.canPlay("Video/MP4; codecs=\"avc1.42E01E\""));
+        Assert.assertFalse(service.canPlay("video/webm"));
+        Assert.assertTrue(service.canPlay("image/png"));
+    }
+
+    @Test
+    public void testReconnectShouldNotProbeKnownMimeTypes() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported(Mockito.anyString()))
+                .thenReturn(new MockAsyncFuture<Boolean>(true));
+        service.setProbedMimeTypes(Arrays.asList("video/mp4"));
+
+        service.connect();
+        service.disconnect();
+        service.connect();
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).isMimeTypeSupported("video/mp4");
+    }
+
+    @Test
+    public void testFailedMimeTypeProbeShouldLeaveTypeUnknown() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported("video/mp4"))
+                .thenReturn(new MockAsyncFutureFailure<Boolean>(),
+                        new MockAsyncFuture<Boolean>(true));
+        service.setProbedMimeTypes(Arrays.asList("video/mp4"));
+        service.connect();
+
+        Assert.assertFalse(service.canPlay("video/mp4"));
+        Assert.assertTrue(service.canPlay("video/mp4"));
+    }
+
+    @Test
+    public void testCanPlayShouldProbeUnknownMimeType() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported("audio/flac"))
+                .thenReturn(new MockAsyncFuture<Boolean>(true));
+        service.setProbedMimeTypes(null);
+        service.connect();
+
+        Assert.assertFalse(service.canPlay("audio/flac"));
+        Mockito.verify(remoteMediaPlayer).isMimeTypeSupported("audio/flac");
+        Assert.assertTrue(service.canPlay("audio/flac"));
+    }
+
+    @Test
+    public void testPlayMediaWithUnsupportedMimeTypeShouldBeSentByDefault() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported("video/webm"))
+                .thenReturn(new MockAsyncFuture<Boolean>(false));
+        Mockito.when(remoteMediaPlayer.setMediaSource(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
+        service.setProbedMimeTypes(Arrays.asList("video/webm"));
+        service.connect();
+        MediaPlayer.LaunchListener listener = Mockito.mock(MediaPlayer.LaunchListener.class);
+
+        service.playMedia(new MediaInfo.Builder("http://host/media.webm", "video/webm").build(),
+                false, listener);
+
+        Assert.assertFalse(service.isUnsupportedMediaRejected());
+        Mockito.verify(remoteMediaPlayer).setMediaSource(Mockito.eq("http://host/media.webm"),
+                Mockito.anyString(), Mockito.anyBoolean(), Mockito.anyBoolean());
+        Mockito.verify(listener).onSuccess(Mockito.any(MediaPlayer.MediaLaunchObject.class));
+    }
+
+    @Test
+    public void testPlayMediaWithUnsupportedMimeTypeShouldFailFast() {
+        Mockito.when(remoteMediaPlayer.isMimeTypeSupported("video/webm"))
+                .thenReturn(new MockAsyncFuture<Boolean>(false));
+        service.setProbedMimeTypes(Arrays.asList("video/webm"));
+        service.setUnsupportedMediaRejected(true);
+        service.connect();
+        MediaPlayer.LaunchListener listener = Mockito.mock(MediaPlayer.LaunchListener.class);
+
+        service.playMedia(new MediaInfo.Builder("http://host/media.webm", "video/webm").build(),
+                false, listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).setMediaSource(
+                Mockito.anyString(), Mockito.anyString(), Mockito.anyBoolean(),
+                Mockito.anyBoolean());
+        ArgumentCaptor<ServiceCommandError> error =
+                ArgumentCaptor.forClass(ServiceCommandError.class);
+        Mockito.verify(listener).onError(error.capture());
+        Assert.assertEquals(FireTVServiceError.UNSUPPORTED_MIME_TYPE, error.getValue().getCode());
+    }
+
+    @Test
+    public void testConnectWithNullRemoteMediaPlayer() {
+        ServiceDescription serviceDescription = Mockito.mock(ServiceDescription.class);
+        ServiceConfig serviceConfig = Mockito.mock(ServiceConfig.class);
+        FireTVService service = new FireTVService(serviceDescription, serviceConfig);
+
+        ConnectableDevice listener = Mockito.mock(ConnectableDevice.class);
+        service.setListener(listener);
+
+        service.connect();
+
+        Mockito.verify(listener, Mockito.times(0)).onConnectionSuccess(service);
+        Assert.assertFalse(service.isConnected());
+    }
+
+    @Test
+    public void testIsConnectable() {
+        Assert.assertTrue(service.isConnectable());
+    }
+
+    @Test
+    public void testSubscribePlayStateWithNullListenerShouldNotCrash() {
+        try {
+            FireTVService.PlayStateSubscription subscription =
+                    (FireTVService.PlayStateSubscription) service.subscribePlayState(null);
+            MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+            Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+            subscription.onStatusChange(status, 0);
+        } catch (RuntimeException e) {
+            Assert.fail("subscribePlayState(null) should not throw a runtime exception");
+        }
+    }
+
+    @Test
+    public void testSubscriptionsWithoutPlayerShouldFail() {
+        FireTVService cachedService = new FireTVService(Mockito.mock(ServiceDescription.class),
+                Mockito.mock(ServiceConfig.class));
+        MediaControl.PlayStateListener playStateListener =
                 Mockito.mock(MediaControl.PlayStateListener.class);
-        MediaControl.PlayStateListener listenerSecond =
+        MediaControl.PositionListener positionListener =
+                Mockito.mock(MediaControl.PositionListener.class);
+        VolumeControl.VolumeListener volumeListener =
+                Mockito.mock(VolumeControl.VolumeListener.class);
+        VolumeControl.MuteListener muteListener = Mockito.mock(VolumeControl.MuteListener.class);
+
+        Assert.assertNull(cachedService.subscribePlayState(playStateListener));
+        Assert.assertNull(cachedService.subscribePosition(positionListener));
+        Assert.assertNull(cachedService.subscribeVolume(volumeListener));
+        Assert.assertNull(cachedService.subscribeMute(muteListener));
+
+        Mockito.verify(playStateListener).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(positionListener).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(volumeListener).onError(Mockito.any(FireTVServiceError.class));
+        Mockito.verify(muteListener).onError(Mockito.any(FireTVServiceError.class));
+    }
+
+    @Test
+    public void testSubscribePlayStateWithNullStatusShouldReturnUnknownState() {
+        MediaControl.PlayStateListener listener =
                 Mockito.mock(MediaControl.PlayStateListener.class);
+        FireTVService.PlayStateSubscription subscription =
+                (FireTVService.PlayStateSubscription) service.subscribePlayState(listener);
+        subscription.onStatusChange(null, 0);
+        Mockito.verify(listener).onSuccess(MediaControl.PlayStateStatus.Unknown);
+    }
+
+    @Test
+    public void testSubscribePosition() {
+        MediaControl.PositionListener listener =
+                Mockito.mock(MediaControl.PositionListener.class);
+        service.subscribePosition(listener);
+        Mockito.verify(remoteMediaPlayer).addStatusListener(
+                Mockito.any(CustomMediaPlayer.StatusListener.class));
+        Mockito.verify(remoteMediaPlayer).setPositionUpdateInterval(
+                FireTVService.DEFAULT_POSITION_UPDATE_INTERVAL);
+    }
+
+    @Test
+    public void testSubscribePositionShouldBeSingle() {
+        MediaControl.PositionListener listener =
+                Mockito.mock(MediaControl.PositionListener.class);
+        ServiceSubscription<MediaControl.PositionListener> subscription =
+                service.subscribePosition(listener);
+        ServiceSubscription<MediaControl.PositionListener> subscription2 =
+                service.subscribePosition(Mockito.mock(MediaControl.PositionListener.class));
+        Assert.assertSame(subscription, subscription2);
+        Assert.assertEquals(2, subscription.getListeners().size());
+    }
+
+    @Test
+    public void testSubscribePositionNotifiesPushedPosition() {
+        MediaControl.PositionListener listener =
+                Mockito.mock(MediaControl.PositionListener.class);
+        CustomMediaPlayer.StatusListener subscription =
+                (CustomMediaPlayer.StatusListener) service.subscribePosition(listener);
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+
+        subscription.onStatusChange(status, 5000L);
+
+        Mockito.verify(listener).onSuccess(5000L);
+    }
+
+    @Test
+    public void testGetPositionWithPositionSubscription() {
+        CustomMediaPlayer.StatusListener subscription = (CustomMediaPlayer.StatusListener)
+                service.subscribePosition(Mockito.mock(MediaControl.PositionListener.class));
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        subscription.onStatusChange(status, 5000L);
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+
+        service.getPosition(listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).getPosition();
+        Mockito.verify(listener).onSuccess(5000L);
+    }
+
+    @Test
+    public void testGetPositionWithPositionSubscriptionShouldRequestStalePosition() {
+        CustomMediaPlayer.StatusListener subscription = (CustomMediaPlayer.StatusListener)
+                service.subscribePosition(Mockito.mock(MediaControl.PositionListener.class));
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        subscription.onStatusChange(status, 5000L);
+        Mockito.when(remoteMediaPlayer.getPosition()).thenReturn(new MockAsyncFuture<Long>(9000L));
+        MediaControl.PositionListener listener = Mockito.mock(MediaControl.PositionListener.class);
+
+        Robolectric.getUiThreadScheduler().advanceBy(FireTVService.MAX_MISSED_POSITION_UPDATES
+                * FireTVService.DEFAULT_POSITION_UPDATE_INTERVAL);
+        service.getPosition(listener);
+
+        Mockito.verify(remoteMediaPlayer).getPosition();
+        Mockito.verify(listener).onSuccess(9000L);
+    }
+
+    @Test
+    public void testSetPositionUpdateIntervalWithPositionSubscription() {
+        service.subscribePosition(Mockito.mock(MediaControl.PositionListener.class));
+        service.setPositionUpdateInterval(250L);
+        Mockito.verify(remoteMediaPlayer).setPositionUpdateInterval(250L);
+        Assert.assertEquals(250L, service.getPositionUpdateInterval());
+    }
+
+    @Test
+    public void testDisconnectWithPositionSubscription() {
+        CustomMediaPlayer.StatusListener subscription = (CustomMediaPlayer.StatusListener)
+                service.subscribePosition(Mockito.mock(MediaControl.PositionListener.class));
+        service.disconnect();
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(subscription);
+        Mockito.verify(remoteMediaPlayer).setPositionUpdateInterval(0L);
+    }
+
+    @Test
+    public void testGetVolumeControl() {
+        Assert.assertSame(service, service.getVolumeControl());
+    }
+
+    @Test
+    public void testGetVolume() {
+        VolumeControl.VolumeListener listener = Mockito.mock(VolumeControl.VolumeListener.class);
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.5));
+
+        service.getVolume(listener);
+        service.getVolume(listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getVolume();
+        Mockito.verify(listener, Mockito.times(2)).onSuccess(0.5f);
+    }
+
+    @Test
+    public void testGetVolumeWithException() {
+        VolumeControl.VolumeListener listener = Mockito.mock(VolumeControl.VolumeListener.class);
+        Mockito.when(remoteMediaPlayer.getVolume())
+                .thenReturn(new MockAsyncFutureFailure<Double>());
+        service.getVolume(listener);
+        verifyListenerError("Error getting volume", listener);
+    }
+
+    @Test
+    public void testSetVolume() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
+        VolumeControl.VolumeListener volumeListener =
+                Mockito.mock(VolumeControl.VolumeListener.class);
+
+        service.setVolume(0.3f, listener);
+        service.getVolume(volumeListener);
+
+        Mockito.verify(remoteMediaPlayer).setVolume(Mockito.anyDouble());
+        Mockito.verify(listener).onSuccess(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).getVolume();
+        Mockito.verify(volumeListener).onSuccess(0.3f);
+    }
+
+    @Test
+    public void testSetVolumeWithException() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(new MockAsyncFutureFailure<Void>());
+        service.setVolume(0.3f, listener);
+        verifyListenerError("Error setting volume", listener);
+    }
+
+    @Test
+    public void testVolumeUpShouldReadCurrentVolume() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.5));
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
+        service.setVolumeStep(0.1f);
+
+        service.volumeUp(listener);
+
+        ArgumentCaptor<Double> volume = ArgumentCaptor.forClass(Double.class);
+        Mockito.verify(remoteMediaPlayer).setVolume(volume.capture());
+        Assert.assertEquals(0.6, volume.getValue(), 0.001);
+        Mockito.verify(listener).onSuccess(null);
+    }
+
+    @Test
+    public void testRapidVolumeStepsShouldBeAddedTogether() {
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.5));
+        MockAsyncFutureDeferred<Void> firstFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(firstFuture, new MockAsyncFuture<Void>(null));
+        List<ResponseListener<Object>> listeners = new ArrayList<ResponseListener<Object>>();
+        for (int i = 0; i < 5; i++) {
+            listeners.add(Mockito.mock(ResponseListener.class));
+        }
+
+        service.volumeUp(listeners.get(0));
+        service.volumeUp(listeners.get(1));
+        service.volumeUp(listeners.get(2));
+        service.volumeDown(listeners.get(3));
+        service.volumeUp(listeners.get(4));
+        firstFuture.complete(null);
+
+        ArgumentCaptor<Double> volume = ArgumentCaptor.forClass(Double.class);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setVolume(volume.capture());
+        Assert.assertEquals(0.55, volume.getAllValues().get(0), 0.001);
+        Assert.assertEquals(0.65, volume.getAllValues().get(1), 0.001);
+        for (ResponseListener<Object> listener : listeners) {
+            Mockito.verify(listener).onSuccess(null);
+        }
+    }
+
+    @Test
+    public void testSetVolumeShouldReplaceWaitingSteps() {
+        MockAsyncFutureDeferred<Void> firstFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(firstFuture, new MockAsyncFuture<Void>(null));
+
+        service.setVolume(0.2f, Mockito.mock(ResponseListener.class));
+        service.volumeUp(Mockito.mock(ResponseListener.class));
+        service.setVolume(0.8f, Mockito.mock(ResponseListener.class));
+        service.volumeDown(Mockito.mock(ResponseListener.class));
+        firstFuture.complete(null);
+
+        ArgumentCaptor<Double> volume = ArgumentCaptor.forClass(Double.class);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setVolume(volume.capture());
+        Assert.assertEquals(0.2, volume.getAllValues().get(0), 0.001);
+        Assert.assertEquals(0.75, volume.getAllValues().get(1), 0.001);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).getVolume();
+    }
+
+    @Test
+    public void testVolumeShouldBeClamped() {
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.98));
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
 
-        ServiceSubscription<MediaControl.PlayStateListener> subscription =
-                service.subscribePlayState(listenerFirst);
-        Assert.assertEquals(1, subscription.getListeners().size());
+        service.volumeUp(Mockito.mock(ResponseListener.class));
 
-        ServiceSubscription<MediaControl.PlayStateListener> subscription2 =
-                service.subscribePlayState(listenerSecond);
-        Assert.assertEquals(2, subscription2.getListeners().size());
+        Mockito.verify(remoteMediaPlayer).setVolume(1.0);
+    }
 
-        ServiceSubscription<MediaControl.PlayStateListener> subscription3 =
-                service.subscribePlayState(listenerSecond);
-        Assert.assertEquals(2, subscription2.getListeners().size());
+    @Test
+    public void testTimedOutVolumeChangeShouldSendNextChange() {
+        MockAsyncFutureDeferred<Void> firstFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble()))
+                .thenReturn(firstFuture, new MockAsyncFuture<Void>(null));
+        ResponseListener<Object> timedOutListener = Mockito.mock(ResponseListener.class);
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.withTimeout(1000).setVolume(0.2f, timedOutListener);
+        service.setVolume(0.8f, listener);
+        Robolectric.getUiThreadScheduler().advanceBy(1000);
+
+        ArgumentCaptor<Double> volume = ArgumentCaptor.forClass(Double.class);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).setVolume(volume.capture());
+        Assert.assertEquals(0.8, volume.getAllValues().get(1), 0.001);
+        Mockito.verify(listener).onSuccess(null);
+
+        firstFuture.complete(null);
+        Mockito.verify(timedOutListener, Mockito.times(0)).onSuccess(Mockito.any());
+        Mockito.verify(listener, Mockito.times(1)).onSuccess(null);
     }
 
     @Test
-    public void testDisconnectWithPlayStateSubscription() {
-        MediaControl.PlayStateListener listener =
-                Mockito.mock(MediaControl.PlayStateListener.class);
-        CustomMediaPlayer.StatusListener subscription =
-                (CustomMediaPlayer.StatusListener)service.subscribePlayState(listener);
-        service.disconnect();
-        Mockito.verify(remoteMediaPlayer).removeStatusListener(subscription);
+    public void testCancelWaitingVolumeChangeShouldDropIt() {
+        MockAsyncFutureDeferred<Void> firstFuture = new MockAsyncFutureDeferred<Void>();
+        Mockito.when(remoteMediaPlayer.setVolume(Mockito.anyDouble())).thenReturn(firstFuture);
+        service.setVolume(0.2f, Mockito.mock(ResponseListener.class));
+
+        FireTVCommandHandle<Object> handle = service.withTimeout(0)
+                .setVolume(0.8f, Mockito.mock(ResponseListener.class));
+        handle.cancel();
+        firstFuture.complete(null);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).setVolume(Mockito.anyDouble());
     }
 
     @Test
-    public void testDisconnectWithoutSubscription() {
-        service.disconnect();
-        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).removeStatusListener(
-                Mockito.any(CustomMediaPlayer.StatusListener.class));
+    public void testSetMute() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.setMute(true)).thenReturn(new MockAsyncFuture<Void>(null));
+        VolumeControl.MuteListener muteListener = Mockito.mock(VolumeControl.MuteListener.class);
+
+        service.setMute(true, listener);
+        service.getMute(muteListener);
+
+        Mockito.verify(listener).onSuccess(null);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(0)).isMute();
+        Mockito.verify(muteListener).onSuccess(true);
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusPaused() {
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Paused,
-                service.createPlayStateStatusFromFireTVStatus(status));
+    public void testSetMuteWithException() {
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+        Mockito.when(remoteMediaPlayer.setMute(true))
+                .thenReturn(new MockAsyncFutureFailure<Void>());
+        service.setMute(true, listener);
+        verifyListenerError("Error setting mute", listener);
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusError() {
-        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Error);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
-                service.createPlayStateStatusFromFireTVStatus(status));
+    public void testGetMute() {
+        VolumeControl.MuteListener listener = Mockito.mock(VolumeControl.MuteListener.class);
+        Mockito.when(remoteMediaPlayer.isMute()).thenReturn(new MockAsyncFuture<Boolean>(true));
+        service.getMute(listener);
+        Mockito.verify(remoteMediaPlayer).isMute();
+        Mockito.verify(listener).onSuccess(true);
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusFinished() {
+    public void testSubscribeVolumeNotifiesPushedVolume() {
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.5));
+        VolumeControl.VolumeListener listener = Mockito.mock(VolumeControl.VolumeListener.class);
+        CustomMediaPlayer.StatusListener subscription =
+                (CustomMediaPlayer.StatusListener) service.subscribeVolume(listener);
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Finished);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Finished,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        Mockito.when(status.isVolumeSet()).thenReturn(true);
+        Mockito.when(status.getVolume()).thenReturn(0.25);
+
+        subscription.onStatusChange(status, 0);
+        service.getVolume(listener);
+
+        Mockito.verify(remoteMediaPlayer).addStatusListener(subscription);
+        Mockito.verify(listener).onSuccess(0.5f);
+        Mockito.verify(listener, Mockito.times(2)).onSuccess(0.25f);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getVolume();
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusNoSource() {
+    public void testSubscribeMuteNotifiesPushedMute() {
+        Mockito.when(remoteMediaPlayer.isMute()).thenReturn(new MockAsyncFuture<Boolean>(false));
+        VolumeControl.MuteListener listener = Mockito.mock(VolumeControl.MuteListener.class);
+        CustomMediaPlayer.StatusListener subscription =
+                (CustomMediaPlayer.StatusListener) service.subscribeMute(listener);
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.NoSource);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Idle,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        Mockito.when(status.isMuteSet()).thenReturn(true);
+        Mockito.when(status.isMute()).thenReturn(true);
+
+        subscription.onStatusChange(status, 0);
+
+        Mockito.verify(listener).onSuccess(false);
+        Mockito.verify(listener).onSuccess(true);
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusPlaying() {
+    public void testDisconnectWithVolumeSubscription() {
+        Mockito.when(remoteMediaPlayer.getVolume()).thenReturn(new MockAsyncFuture<Double>(0.5));
+        CustomMediaPlayer.StatusListener subscription = (CustomMediaPlayer.StatusListener)
+                service.subscribeVolume(Mockito.mock(VolumeControl.VolumeListener.class));
+        service.disconnect();
+        Mockito.verify(remoteMediaPlayer).removeStatusListener(subscription);
+    }
+
+    @Test
+    public void testGetPlayStateFromCache() {
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Playing,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+
+        service.getPlayState(listener);
+        service.getPlayState(listener);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getStatus();
+        Mockito.verify(listener, Mockito.times(2))
+                .onSuccess(MediaControl.PlayStateStatus.Paused);
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusPreparing() {
+    public void testGetPlayStateWithDisabledCache() {
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.PreparingMedia);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Buffering,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+        service.setStateCacheTimeout(0);
+
+        service.getPlayState(Mockito.mock(MediaControl.PlayStateListener.class));
+        service.getPlayState(Mockito.mock(MediaControl.PlayStateListener.class));
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getStatus();
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusReady() {
+    public void testGetPlayStateAfterPlayShouldNotUseCache() {
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.ReadyToPlay);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+        Mockito.when(remoteMediaPlayer.getStatus())
+                .thenReturn(new MockAsyncFuture<MediaPlayerStatus>(status));
+        Mockito.when(remoteMediaPlayer.play()).thenReturn(new MockAsyncFuture<Void>(null));
+
+        service.getPlayState(Mockito.mock(MediaControl.PlayStateListener.class));
+        service.play(Mockito.mock(ResponseListener.class));
+        service.getPlayState(Mockito.mock(MediaControl.PlayStateListener.class));
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getStatus();
     }
 
     @Test
-    public void testCreatePlayStateStatusFromFireTVStatusSeeking() {
+    public void testGetPlayStateFromStatusPush() {
+        FireTVService.PlayStateSubscription subscription = (FireTVService.PlayStateSubscription)
+                service.subscribePlayState(null);
         MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Seeking);
-        Assert.assertEquals(MediaControl.PlayStateStatus.Unknown,
-                service.createPlayStateStatusFromFireTVStatus(status));
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
+        subscription.onStatusChange(status, 0);
+        MediaControl.PlayStateListener listener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+
+        service.getPlayState(listener);
+
+        Mockito.verify(listener).onSuccess(MediaControl.PlayStateStatus.Playing);
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getStatus();
     }
 
     @Test
-    public void testConnect() {
-        ConnectableDevice listener = Mockito.mock(ConnectableDevice.class);
-        service.setListener(listener);
+    public void testGetDurationFromCache() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(new MockAsyncFuture<Long>(123L));
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
 
-        service.connect();
+        service.getDuration(listener);
+        service.getDuration(listener);
 
-        Mockito.verify(listener).onConnectionSuccess(service);
-        Assert.assertTrue(service.isConnected());
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getDuration();
+        Mockito.verify(listener, Mockito.times(2)).onSuccess(123L);
     }
 
     @Test
-    public void testConnectWithNullRemoteMediaPlayer() {
-        ServiceDescription serviceDescription = Mockito.mock(ServiceDescription.class);
-        ServiceConfig serviceConfig = Mockito.mock(ServiceConfig.class);
-        FireTVService service = new FireTVService(serviceDescription, serviceConfig);
+    public void testGetDurationAfterMediaSourceChangedShouldNotUseCache() {
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(new MockAsyncFuture<Long>(123L));
+        Mockito.when(remoteMediaPlayer.setMediaSource(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
 
-        ConnectableDevice listener = Mockito.mock(ConnectableDevice.class);
-        service.setListener(listener);
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
+        service.playMedia(new MediaInfo("url", "mime", "title", "description"), false,
+                Mockito.mock(MediaPlayer.LaunchListener.class));
+        service.getDuration(Mockito.mock(MediaControl.DurationListener.class));
 
-        service.connect();
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getDuration();
+    }
 
-        Mockito.verify(listener, Mockito.times(0)).onConnectionSuccess(service);
-        Assert.assertFalse(service.isConnected());
+    @Test
+    public void testConcurrentGetDurationShouldShareRequest() {
+        MockAsyncFutureDeferred<Long> future = new MockAsyncFutureDeferred<Long>();
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(future);
+        MediaControl.DurationListener listenerFirst =
+                Mockito.mock(MediaControl.DurationListener.class);
+        MediaControl.DurationListener listenerSecond =
+                Mockito.mock(MediaControl.DurationListener.class);
+
+        service.getDuration(listenerFirst);
+        service.getDuration(listenerSecond);
+        future.complete(123L);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getDuration();
+        Mockito.verify(listenerFirst).onSuccess(123L);
+        Mockito.verify(listenerSecond).onSuccess(123L);
     }
 
     @Test
-    public void testIsConnectable() {
-        Assert.assertTrue(service.isConnectable());
+    public void testConcurrentGetMediaInfoShouldShareResult() {
+        MockAsyncFutureDeferred<MediaPlayerInfo> future =
+                new MockAsyncFutureDeferred<MediaPlayerInfo>();
+        Mockito.when(remoteMediaPlayer.getMediaInfo()).thenReturn(future);
+        MediaPlayerInfo info = Mockito.mock(MediaPlayerInfo.class);
+        Mockito.when(info.getSource()).thenReturn("url");
+        Mockito.when(info.getMetadata()).thenReturn(
+                "{'title':'title','type':'video/mp4','description':'description'}");
+        MediaPlayer.MediaInfoListener listenerFirst =
+                Mockito.mock(MediaPlayer.MediaInfoListener.class);
+        MediaPlayer.MediaInfoListener listenerSecond =
+                Mockito.mock(MediaPlayer.MediaInfoListener.class);
+
+        service.getMediaInfo(listenerFirst);
+        service.getMediaInfo(listenerSecond);
+        future.complete(info);
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).getMediaInfo();
+        ArgumentCaptor<MediaInfo> argFirst = ArgumentCaptor.forClass(MediaInfo.class);
+        ArgumentCaptor<MediaInfo> argSecond = ArgumentCaptor.forClass(MediaInfo.class);
+        Mockito.verify(listenerFirst).onSuccess(argFirst.capture());
+        Mockito.verify(listenerSecond).onSuccess(argSecond.capture());
+        Assert.assertSame(argFirst.getValue(), argSecond.getValue());
     }
 
     @Test
-    public void testSubscribePlayStateWithNullListenerShouldNotCrash() {
-        try {
-            FireTVService.PlayStateSubscription subscription =
-                    (FireTVService.PlayStateSubscription) service.subscribePlayState(null);
-            MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
-            Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Playing);
-            subscription.onStatusChange(status, 0);
-        } catch (RuntimeException e) {
-            Assert.fail("subscribePlayState(null) should not throw a runtime exception");
-        }
+    public void testConcurrentGetMediaInfoWithException() {
+        MockAsyncFutureDeferred<MediaPlayerInfo> future =
+                new MockAsyncFutureDeferred<MediaPlayerInfo>();
+        Mockito.when(remoteMediaPlayer.getMediaInfo()).thenReturn(future);
+        MediaPlayer.MediaInfoListener listenerFirst =
+                Mockito.mock(MediaPlayer.MediaInfoListener.class);
+        MediaPlayer.MediaInfoListener listenerSecond =
+                Mockito.mock(MediaPlayer.MediaInfoListener.class);
+
+        service.getMediaInfo(listenerFirst);
+        service.getMediaInfo(listenerSecond);
+        future.fail(new Exception("MockAsyncFutureFailure"));
+
+        verifyListenerError("Error getting media info", listenerFirst);
+        verifyListenerError("Error getting media info", listenerSecond);
     }
 
     @Test
-    public void testSubscribePlayStateWithNullStatusShouldReturnUnknownState() {
-        MediaControl.PlayStateListener listener =
-                Mockito.mock(MediaControl.PlayStateListener.class);
-        FireTVService.PlayStateSubscription subscription =
-                (FireTVService.PlayStateSubscription) service.subscribePlayState(listener);
-        subscription.onStatusChange(null, 0);
-        Mockito.verify(listener).onSuccess(MediaControl.PlayStateStatus.Unknown);
+    public void testGetMediaInfoAfterCompletedRequestShouldSendNewRequest() {
+        Mockito.when(remoteMediaPlayer.getMediaInfo())
+                .thenReturn(new MockAsyncFutureFailure<MediaPlayerInfo>());
+
+        service.getMediaInfo(Mockito.mock(MediaPlayer.MediaInfoListener.class));
+        service.getMediaInfo(Mockito.mock(MediaPlayer.MediaInfoListener.class));
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(2)).getMediaInfo();
     }
 
     @Test
@@ -858,6 +2382,63 @@ public class FireTVServiceTest {
         Assert.assertNull(service.subscribeMediaInfo(null));
     }
 
+    @Test
+    public void testDefaultCallbackExecutor() {
+        Assert.assertSame(FireTVCallbackExecutors.mainThread(), service.getCallbackExecutor());
+    }
+
+    @Test
+    public void testSetNullCallbackExecutorShouldRestoreMainThread() {
+        service.setCallbackExecutor(FireTVCallbackExecutors.direct());
+        service.setCallbackExecutor(null);
+        Assert.assertSame(FireTVCallbackExecutors.mainThread(), service.getCallbackExecutor());
+    }
+
+    @Test
+    public void testCallbackExecutorShouldDeliverResults() {
+        QueueExecutor executor = new QueueExecutor();
+        service.setCallbackExecutor(executor);
+        Mockito.when(remoteMediaPlayer.getDuration()).thenReturn(new MockAsyncFuture<Long>(10L));
+        MediaControl.DurationListener listener = Mockito.mock(MediaControl.DurationListener.class);
+
+        service.getDuration(listener);
+        Mockito.verifyZeroInteractions(listener);
+        executor.runAll();
+
+        Mockito.verify(listener).onSuccess(10L);
+    }
+
+    @Test
+    public void testCallbackExecutorShouldDeliverErrors() {
+        QueueExecutor executor = new QueueExecutor();
+        service.setCallbackExecutor(executor);
+        ResponseListener<Object> listener = Mockito.mock(ResponseListener.class);
+
+        service.next(listener);
+        Mockito.verifyZeroInteractions(listener);
+        executor.runAll();
+
+        Mockito.verify(listener).onError(Mockito.any(NotSupportedServiceCommandError.class));
+    }
+
+    @Test
+    public void testCallbackExecutorShouldDeliverSubscriptionUpdates() {
+        QueueExecutor executor = new QueueExecutor();
+        service.setCallbackExecutor(executor);
+        MediaControl.PositionListener listener =
+                Mockito.mock(MediaControl.PositionListener.class);
+        CustomMediaPlayer.StatusListener subscription =
+                (CustomMediaPlayer.StatusListener) service.subscribePosition(listener);
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(MediaPlayerStatus.MediaState.Paused);
+
+        subscription.onStatusChange(status, 5000L);
+        Mockito.verifyZeroInteractions(listener);
+        executor.runAll();
+
+        Mockito.verify(listener).onSuccess(5000L);
+    }
+
     private void verifySetMediaSource(String source, String meta, boolean isAutoPlay,
                                       boolean isPlayInBg) throws JSONException {
         ArgumentCaptor<String> argSource = ArgumentCaptor.forClass(String.class);
@@ -874,6 +2455,33 @@ public class FireTVServiceTest {
         Assert.assertEquals(isPlayInBg, argPlayInBg.getValue().booleanValue());
     }
 
+    private void mockSetMediaSource() {
+        Mockito.when(remoteMediaPlayer.setMediaSource(Mockito.anyString(), Mockito.anyString(),
+                Mockito.anyBoolean(), Mockito.anyBoolean()))
+                .thenReturn(new MockAsyncFuture<Void>(null));
+    }
+
+    private List<MediaInfo> createPlaylistItems(int count) {
+        List<MediaInfo> items = new ArrayList<MediaInfo>();
+        for (int i = 0; i < count; i++) {
+            items.add(new MediaInfo.Builder("url" + i, "video/mp4").build());
+        }
+        return items;
+    }
+
+    private CustomMediaPlayer.StatusListener captureStatusListener() {
+        ArgumentCaptor<CustomMediaPlayer.StatusListener> statusListener =
+                ArgumentCaptor.forClass(CustomMediaPlayer.StatusListener.class);
+        Mockito.verify(remoteMediaPlayer).addStatusListener(statusListener.capture());
+        return statusListener.getValue();
+    }
+
+    private MediaPlayerStatus mockStatus(MediaPlayerStatus.MediaState state) {
+        MediaPlayerStatus status = Mockito.mock(MediaPlayerStatus.class);
+        Mockito.when(status.getState()).thenReturn(state);
+        return status;
+    }
+
     private void verifyLauncherListener(MediaPlayer.LaunchListener launchListener) {
         ArgumentCaptor<MediaPlayer.MediaLaunchObject> argMediaObject = ArgumentCaptor
                 .forClass(MediaPlayer.MediaLaunchObject.class);
@@ -893,6 +2501,22 @@ public class FireTVServiceTest {
         Assert.assertEquals(errorMessage, error.getValue().getMessage());
     }
 
+    static class QueueExecutor implements Executor {
+
+        final List<Runnable> commands = new ArrayList<Runnable>();
+
+        @Override
+        public void execute(Runnable command) {
+            commands.add(command);
+        }
+
+        void runAll() {
+            while (!commands.isEmpty()) {
+                commands.remove(0).run();
+            }
+        }
+    }
+
     static class MockAsyncFuture<T> implements RemoteMediaPlayer.AsyncFuture<T> {
 
         private T value;
@@ -969,6 +2593,63 @@ public class FireTVServiceTest {
         }
     }
 
+    static class MockAsyncFutureDeferred<T> implements RemoteMediaPlayer.AsyncFuture<T> {
+
+        private RemoteMediaPlayer.FutureListener<T> futureListener;
+
+        private T value;
+
+        private Exception exception;
+
+        private boolean done;
+
+        public void complete(T value) {
+            this.value = value;
+            this.done = true;
+            futureListener.futureIsNow(this);
+        }
+
+        public void fail(Exception exception) {
+            this.exception = exception;
+            this.done = true;
+            futureListener.futureIsNow(this);
+        }
+
+        @Override
+        public void getAsync(RemoteMediaPlayer.FutureListener<T> futureListener) {
+            this.futureListener = futureListener;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            if (exception != null) {
+                throw new ExecutionException("Operation error", exception);
+            }
+            return value;
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            return get();
+        }
+    }
+
     static class DoubleMatcher extends ArgumentMatcher<Double> {
 
         private double expected;
@@ -31,9 +31,13 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 
 @RunWith(RobolectricTestRunner.class)
@@ -77,6 +81,61 @@ public class PlayStateSubscriptionTest {
         Assert.assertTrue(subscription.listeners.isEmpty());
     }
 
+    @Test
+    public void testAddSameListenerTwice() {
+        subscription.addListener(listener);
+        Assert.assertEquals(1, subscription.listeners.size());
+    }
+
+    @Test
+    public void testRemoveListenerDuringNotification() {
+        final MediaControl.PlayStateListener secondListener =
+                Mockito.mock(MediaControl.PlayStateListener.class);
+        subscription.addListener(secondListener);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                subscription.removeListener(secondListener);
+                return null;
+            }
+        }).when(listener).onSuccess(Mockito.any(MediaControl.PlayStateStatus.class));
+
+        subscription.notifyListeners(MediaControl.PlayStateStatus.Playing);
+
+        Mockito.verify(secondListener).onSuccess(MediaControl.PlayStateStatus.Playing);
+        Assert.assertEquals(1, subscription.listeners.size());
+    }
+
+    @Test
+    public void testConcurrentSubscribePlayState() throws InterruptedException {
+        final int threadCount = 8;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        service.subscribePlayState(
+                                Mockito.mock(MediaControl.PlayStateListener.class));
+                    } catch (InterruptedException e) {
+                        // finish
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+
+        startLatch.countDown();
+        Assert.assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+
+        Mockito.verify(remoteMediaPlayer, Mockito.times(1)).addStatusListener(
+                Mockito.any(FireTVService.PlayStateSubscription.class));
+        Assert.assertEquals(threadCount, service.subscribePlayState(null).getListeners().size());
+    }
+
     @Test
     public void testUnsubscribe() {
         subscription.unsubscribe();